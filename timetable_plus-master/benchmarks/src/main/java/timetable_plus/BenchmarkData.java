@@ -0,0 +1,41 @@
+package timetable_plus;
+
+// Synthetic stores for the benchmarks, made by InstanceGenerator from a
+// fixed seed, so every run (and every fork) benchmarks exactly the same
+// data. InstanceGenerator.main writes the same instances as CSV for load
+// tests.
+final class BenchmarkData {
+    static final String SMALL = "small";
+    static final String MEDIUM = "medium";
+    static final String LARGE = "large";
+
+    private static final long SEED = 2024;
+
+    private BenchmarkData() {}
+
+    static InstanceGenerator generator(String size) {
+        switch (size) {
+            case SMALL:
+                return new InstanceGenerator(SEED).withCourses(10).withInstructors(16).withRooms(8, 2);
+            case MEDIUM:
+                return new InstanceGenerator(SEED).withCourses(50).withInstructors(80).withRooms(25, 6);
+            case LARGE:
+                return new InstanceGenerator(SEED).withCourses(200).withInstructors(320).withRooms(80, 20);
+            default:
+                throw new IllegalArgumentException("Unknown benchmark size: " + size);
+        }
+    }
+
+    static InMemoryStore create(String size) {
+        return generator(size).generate();
+    }
+
+    // A fixed-generation run from a fixed seed without the pre-check, so
+    // the same work is measured whatever the data allows
+    static SolverConfig config(int generations) {
+        return new SolverConfig()
+            .withSeed(SEED)
+            .withMaxGenerations(generations)
+            .withPreCheck(false);
+    }
+}
@@ -0,0 +1,87 @@
+package timetable_plus;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Every BITSConflictChecker query, asked for each cell of the week against
+// a timetable the allocator has filled
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConflictCheckerBenchmark {
+    @Param({BenchmarkData.SMALL, BenchmarkData.MEDIUM, BenchmarkData.LARGE})
+    public String size;
+
+    private Schedule schedule;
+    private Course course;
+    private String roomId;
+    private String instructorId;
+
+    @Setup
+    public void setUp() {
+        BITSTimetableEngine engine = new BITSTimetableEngine(BenchmarkData.create(size), BenchmarkData.config(0));
+        schedule = engine.generateSchedule();
+
+        // A placed session, so the checks have something to find
+        ScheduleSlot slot = schedule.getSlots().get(0);
+        course = slot.getCourse();
+        roomId = slot.getRoomNumber();
+        instructorId = slot.getInstructorId();
+    }
+
+    @Benchmark
+    public int hasRoomConflict() {
+        int conflicts = 0;
+        for (int day = 0; day < InMemoryStore.WORKING_DAYS; day++) {
+            for (int period = 0; period < InMemoryStore.PERIODS_PER_DAY; period++) {
+                if (BITSConflictChecker.hasRoomConflict(roomId, day, period, schedule)) conflicts++;
+            }
+        }
+        return conflicts;
+    }
+
+    @Benchmark
+    public int hasInstructorConflict() {
+        int conflicts = 0;
+        for (int day = 0; day < InMemoryStore.WORKING_DAYS; day++) {
+            for (int period = 0; period < InMemoryStore.PERIODS_PER_DAY; period++) {
+                if (BITSConflictChecker.hasInstructorConflict(instructorId, day, period, schedule)) conflicts++;
+            }
+        }
+        return conflicts;
+    }
+
+    @Benchmark
+    public int hasCourseConflict() {
+        int conflicts = 0;
+        for (int day = 0; day < InMemoryStore.WORKING_DAYS; day++) {
+            if (BITSConflictChecker.hasCourseConflict(course, day, schedule)) conflicts++;
+        }
+        return conflicts;
+    }
+
+    @Benchmark
+    public int isValidAllocation() {
+        int valid = 0;
+        for (int day = 0; day < InMemoryStore.WORKING_DAYS; day++) {
+            for (int period = 0; period < InMemoryStore.PERIODS_PER_DAY; period++) {
+                if (BITSConflictChecker.isValidAllocation(course, roomId, instructorId, day, period, schedule)) valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int hasTimeConflict() {
+        int conflicts = 0;
+        for (int day = 0; day < InMemoryStore.WORKING_DAYS; day++) {
+            for (int period = 0; period < InMemoryStore.PERIODS_PER_DAY; period++) {
+                if (BITSConflictChecker.hasTimeConflict(schedule, day, period)) conflicts++;
+            }
+        }
+        return conflicts;
+    }
+}
@@ -0,0 +1,44 @@
+package timetable_plus;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Scoring one timetable: from a Schedule (encoding included) and straight
+// from a genome, as the GA does for every new individual
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FitnessBenchmark {
+    @Param({BenchmarkData.SMALL, BenchmarkData.MEDIUM, BenchmarkData.LARGE})
+    public String size;
+
+    private BITSTimetableEngine engine;
+    private Schedule schedule;
+    private ScheduleGenome genome;
+    private SoftConstraints soft;
+
+    @Setup
+    public void setUp() {
+        InMemoryStore store = BenchmarkData.create(size);
+        engine = new BITSTimetableEngine(store, BenchmarkData.config(0));
+        schedule = engine.generateSchedule();
+
+        GenomeCodec codec = new GenomeCodec(store, schedule);
+        genome = codec.encode(schedule);
+        soft = codec.newSoftConstraints(engine.getConfig());
+    }
+
+    @Benchmark
+    public double calculateFitness() {
+        schedule.invalidateFitness();
+        return engine.calculateFitness(schedule);
+    }
+
+    @Benchmark
+    public double genomeFitness() {
+        return BITSTimetableEngine.fitnessFor(genome.getConflicts(), soft.penalty(genome));
+    }
+}
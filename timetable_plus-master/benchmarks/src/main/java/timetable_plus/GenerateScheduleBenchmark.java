@@ -0,0 +1,32 @@
+package timetable_plus;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// A whole generateSchedule call, allocation and a fixed 100 generations of
+// the GA (stagnation restarts can end it earlier), timed per run
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GenerateScheduleBenchmark {
+    private static final int GENERATIONS = 100;
+
+    @Param({BenchmarkData.SMALL, BenchmarkData.MEDIUM, BenchmarkData.LARGE})
+    public String size;
+
+    private InMemoryStore store;
+
+    @Setup
+    public void setUp() {
+        store = BenchmarkData.create(size);
+    }
+
+    @Benchmark
+    public Schedule generateSchedule() {
+        // A run never changes the store, so every iteration does the same work
+        return new BITSTimetableEngine(store, BenchmarkData.config(GENERATIONS)).generateSchedule();
+    }
+}
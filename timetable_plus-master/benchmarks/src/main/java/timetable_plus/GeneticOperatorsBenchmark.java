@@ -0,0 +1,49 @@
+package timetable_plus;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// The GA's variation operators on packed genomes. copyGenome is what used
+// to be cloneSchedule; mutate includes a copy, so that the parent survives.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeneticOperatorsBenchmark {
+    @Param({BenchmarkData.SMALL, BenchmarkData.MEDIUM, BenchmarkData.LARGE})
+    public String size;
+
+    private BITSTimetableEngine engine;
+    private ScheduleGenome parent1;
+    private ScheduleGenome parent2;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        InMemoryStore store = BenchmarkData.create(size);
+        engine = new BITSTimetableEngine(store, BenchmarkData.config(0));
+        Schedule schedule = engine.generateSchedule();
+
+        random = new Random(1);
+        parent1 = new GenomeCodec(store, schedule).encode(schedule);
+        parent2 = engine.mutate(parent1.copy(), random);
+    }
+
+    @Benchmark
+    public ScheduleGenome copyGenome() {
+        return parent1.copy();
+    }
+
+    @Benchmark
+    public ScheduleGenome crossover() {
+        return engine.crossover(parent1, parent2, random);
+    }
+
+    @Benchmark
+    public ScheduleGenome mutate() {
+        return engine.mutate(parent1.copy(), random);
+    }
+}
@@ -5,11 +5,27 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 
 public class AdminDashboard extends JFrame {
+    // Share of sessions in which generated alternatives must differ
+    private static final double ALTERNATIVE_MIN_DISTANCE = 0.2;
+    
     private InMemoryStore store = InMemoryStore.getInstance();
     private int currentScheduleIndex = 0;
     
+    // Background timetable generation
+    private SwingWorker<List<Schedule>, SolverProgress> generationWorker;
+    private CancellationToken generationToken;
+    private JButton generateButton;
+    private JButton alternativesButton;
+    private JButton repairButton;
+    private JButton cancelButton;
+    private JProgressBar generationProgress;
+    
     public AdminDashboard() {
         setTitle("Admin Dashboard - BITS Timetable");
         setSize(1024, 768);
@@ -156,28 +172,55 @@ public class AdminDashboard extends JFrame {
         TimetablePanel timetablePanel = new TimetablePanel(store.getCurrentSchedule());
         panel.add(new JScrollPane(timetablePanel), BorderLayout.CENTER);
         
-        // Add control panel
+        // Add control panel; the run controls are made once and moved into
+        // each rebuilt panel, so a running generation keeps its progress
+        if (generationProgress == null) {
+            createGenerationControls();
+        }
         JPanel controlPanel = new JPanel();
-        JButton generateButton = new JButton("Auto-Generate");
         JButton saveButton = new JButton("Save Timetable");
         JButton prevButton = new JButton("« Previous");
         JButton nextButton = new JButton("Next »");
         
-        generateButton.addActionListener(e -> generateNewTimetable());
         saveButton.addActionListener(e -> saveTimetable());
         prevButton.addActionListener(e -> showPreviousTimetable());
         nextButton.addActionListener(e -> showNextTimetable());
         
         controlPanel.add(generateButton);
+        controlPanel.add(alternativesButton);
+        controlPanel.add(repairButton);
+        controlPanel.add(cancelButton);
         controlPanel.add(saveButton);
         controlPanel.add(prevButton);
         controlPanel.add(nextButton);
         
-        panel.add(controlPanel, BorderLayout.SOUTH);
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(generationProgress, BorderLayout.NORTH);
+        southPanel.add(controlPanel, BorderLayout.SOUTH);
+        
+        panel.add(southPanel, BorderLayout.SOUTH);
         
         return panel;
     }
     
+    // Buttons that start or cancel a run, and the progress of a running one
+    private void createGenerationControls() {
+        generateButton = new JButton("Auto-Generate");
+        alternativesButton = new JButton("Generate Options...");
+        repairButton = new JButton("Repair Current");
+        cancelButton = new JButton("Cancel");
+        
+        generateButton.addActionListener(e -> generateNewTimetable());
+        alternativesButton.addActionListener(e -> generateAlternatives());
+        repairButton.addActionListener(e -> repairCurrentTimetable());
+        cancelButton.addActionListener(e -> cancelGeneration());
+        cancelButton.setEnabled(false);
+        
+        generationProgress = new JProgressBar();
+        generationProgress.setStringPainted(true);
+        generationProgress.setString("Idle");
+    }
+    
     private void showAddClassroomDialog(ActionEvent e) {
         // Implementation for add classroom dialog
         JDialog dialog = new JDialog(this, "Add Classroom", true);
@@ -300,18 +343,179 @@ public class AdminDashboard extends JFrame {
     }
     
     private void generateNewTimetable() {
+        runEngine(engine -> Collections.singletonList(engine.generateSchedule()), "Checking feasibility...", true);
+    }
+    
+    // Several distinct timetables from one run, added to the store together
+    // so Previous/Next step through them
+    private void generateAlternatives() {
+        String input = JOptionPane.showInputDialog(this, "How many alternative timetables?", "3");
+        if (input == null) {
+            return;
+        }
+        
+        int count;
         try {
-            BITSTimetableEngine engine = new BITSTimetableEngine();
-            Schedule newSchedule = engine.generateSchedule();
-            store.addSchedule(newSchedule);
-            JOptionPane.showMessageDialog(this, "Timetable generated successfully!");
+            count = Integer.parseInt(input.trim());
+        } catch (NumberFormatException ex) {
+            count = 0;
+        }
+        if (count < 1) {
+            JOptionPane.showMessageDialog(this, "Please enter a whole number of at least 1.",
+                                        "Invalid Number", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        int alternatives = count;
+        runEngine(engine -> engine.generateAlternatives(alternatives, ALTERNATIVE_MIN_DISTANCE), 
+                  "Checking feasibility...", true);
+    }
+    
+    // Re-places only the sessions invalidated by course changes made since
+    // the current timetable was built; everything else stays put. The worker
+    // repairs a copy taken here, so edits made while it runs cannot reach it.
+    private void repairCurrentTimetable() {
+        Schedule current = store.getCurrentSchedule();
+        if (current == null) {
+            JOptionPane.showMessageDialog(this, "There is no current timetable to repair.");
+            return;
+        }
+        Schedule frozen = current.copy();
+        runEngine(engine -> Collections.singletonList(engine.repairSchedule(frozen)), 
+                  "Repairing " + current.getName() + "...", true);
+    }
+    
+    // Runs the optimizer on a background thread so the UI stays responsive;
+    // progress is shown as it arrives and the results are added to the store.
+    // The engine works on a snapshot of the store taken here, on the EDT, so
+    // the data can be edited while it runs.
+    private void runEngine(Function<BITSTimetableEngine, List<Schedule>> task, String status, boolean preCheck) {
+        if (generationWorker != null && !generationWorker.isDone()) {
+            return;
+        }
+        
+        generationToken = new CancellationToken();
+        SolverConfig config = new SolverConfig()
+            .withCancellationToken(generationToken)
+            .withPreCheck(preCheck);
+        BITSTimetableEngine engine = new BITSTimetableEngine(store.snapshot(), config);
+        
+        generateButton.setEnabled(false);
+        alternativesButton.setEnabled(false);
+        repairButton.setEnabled(false);
+        cancelButton.setEnabled(true);
+        generationProgress.setMaximum(config.getMaxGenerations());
+        generationProgress.setValue(0);
+        generationProgress.setString(status);
+        
+        generationWorker = new SwingWorker<List<Schedule>, SolverProgress>() {
+            @Override
+            protected List<Schedule> doInBackground() {
+                engine.setProgressListener(this::publish);
+                return task.apply(engine);
+            }
+            
+            @Override
+            protected void process(List<SolverProgress> updates) {
+                // Only the latest snapshot matters
+                SolverProgress latest = updates.get(updates.size() - 1);
+                generationProgress.setValue(latest.getGeneration());
+                generationProgress.setString(latest.toString());
+            }
+            
+            @Override
+            protected void done() {
+                finishGeneration(this, engine, task);
+            }
+        };
+        generationWorker.execute();
+    }
+    
+    // Stops the running generation; the best timetable found so far is kept
+    private void cancelGeneration() {
+        if (generationToken != null) {
+            generationToken.cancel();
+            cancelButton.setEnabled(false);
+            generationProgress.setString("Cancelling...");
+        }
+    }
+    
+    private void finishGeneration(SwingWorker<List<Schedule>, SolverProgress> worker, BITSTimetableEngine engine,
+                                  Function<BITSTimetableEngine, List<Schedule>> task) {
+        generateButton.setEnabled(true);
+        alternativesButton.setEnabled(true);
+        repairButton.setEnabled(true);
+        cancelButton.setEnabled(false);
+        
+        try {
+            List<Schedule> newSchedules = worker.get();
+            FeasibilityCheck check = engine.getLastFeasibilityCheck();
+            if (check != null && !check.isFeasible()) {
+                generationProgress.setString("Infeasible");
+                offerBestEffort(check, task);
+                return;
+            }
+            
+            for (Schedule newSchedule : newSchedules) {
+                store.addSchedule(newSchedule);
+            }
+            store.setCurrentSchedule(newSchedules.get(0));
+            currentScheduleIndex = store.getAllSchedules().size() - newSchedules.size();
+            
             // Refresh the timetable view
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error generating timetable: " + ex.getMessage(),
+            refreshTimetablePanel();
+            
+            String message = engine.getLastStopReason() == BITSTimetableEngine.StopReason.CANCELLED ?
+                "Generation cancelled; the best timetable found so far was kept." :
+                newSchedules.size() > 1 ?
+                newSchedules.size() + " alternative timetables generated; use Previous and Next to compare them." :
+                "Timetable generated successfully!";
+            List<PlacementDiagnosis> unplaced = engine.getLastDiagnoses();
+            if (unplaced.isEmpty()) {
+                JOptionPane.showMessageDialog(this, message);
+            } else {
+                Object[] details = {
+                    message,
+                    unplaced.size() + " session(s) could not be placed:",
+                    issueList(unplaced)
+                };
+                JOptionPane.showMessageDialog(this, details, "Unplaced Sessions", JOptionPane.WARNING_MESSAGE);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            JOptionPane.showMessageDialog(this, "Error generating timetable: " + ex.getCause().getMessage(),
                                         "Generation Error", JOptionPane.ERROR_MESSAGE);
         }
     }
     
+    // Lists what the pre-check found and lets the admin generate anyway
+    private void offerBestEffort(FeasibilityCheck check, Function<BITSTimetableEngine, List<Schedule>> task) {
+        Object[] message = {
+            "No complete timetable exists for the current data:",
+            issueList(check.getIssues()),
+            "Generate a best-effort timetable anyway?"
+        };
+        
+        int choice = JOptionPane.showConfirmDialog(this, message, "Infeasible Timetable", 
+                                                   JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+        if (choice == JOptionPane.YES_OPTION) {
+            runEngine(task, "Allocating sessions...", false);
+        }
+    }
+    
+    // One problem per line, scrolling once there are more than a dozen
+    private JScrollPane issueList(List<?> issues) {
+        StringBuilder lines = new StringBuilder();
+        for (Object issue : issues) {
+            lines.append(issue).append('\n');
+        }
+        
+        JTextArea text = new JTextArea(lines.toString(), Math.min(12, issues.size()), 60);
+        text.setEditable(false);
+        return new JScrollPane(text);
+    }
+    
     private void saveTimetable() {
         JFileChooser fileChooser = new JFileChooser();
         if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
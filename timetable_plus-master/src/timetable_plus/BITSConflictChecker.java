@@ -1,58 +1,46 @@
 package timetable_plus;
 
-import java.util.List;
-
 public class BITSConflictChecker {
+    // These use the schedule's occupancy bitmasks: no scanning and no allocation
     public static boolean hasRoomConflict(String roomId, int day, int period, Schedule schedule) {
-        List<ScheduleSlot> roomAllocations = schedule.getRoomAllocations(roomId);
-        
-        for (ScheduleSlot slot : roomAllocations) {
-            if (slot.getDay() == day && slot.overlaps(period)) {
-                return true;
-            }
-        }
-        return false;
+        return (schedule.getRoomOccupancy(roomId) & Schedule.cellBit(day, period)) != 0;
     }
     
     public static boolean hasInstructorConflict(String instructorId, int day, int period, Schedule schedule) {
-        List<ScheduleSlot> instructorAllocations = schedule.getInstructorAllocations(instructorId);
-        
-        for (ScheduleSlot slot : instructorAllocations) {
-            if (slot.getDay() == day && slot.overlaps(period)) {
-                return true;
-            }
-        }
-        return false;
+        return (schedule.getInstructorOccupancy(instructorId) & Schedule.cellBit(day, period)) != 0;
     }
     
+    // True if the course already meets within LECTURE_GAP_DAYS of the given day
     public static boolean hasCourseConflict(Course course, int day, Schedule schedule) {
-        List<ScheduleSlot> courseAllocations = schedule.getCourseAllocations(course);
-        
-        for (ScheduleSlot slot : courseAllocations) {
-            if (Math.abs(slot.getDay() - day) <= BITSConstraints.LECTURE_GAP_DAYS) {
-                return true;
-            }
+        long window = 0;
+        for (int d = Math.max(0, day - BITSConstraints.LECTURE_GAP_DAYS); 
+             d <= Math.min(InMemoryStore.WORKING_DAYS - 1, day + BITSConstraints.LECTURE_GAP_DAYS); d++) {
+            window |= Schedule.dayBits(d);
         }
-        return false;
+        return (schedule.getCourseOccupancy(course) & window) != 0;
     }
     
+    // Labs need the room and instructor free for all LAB_DURATION periods
     public static boolean isValidAllocation(Course course, String roomId, String instructorId, 
                                          int day, int period, Schedule schedule) {
-        // Check all constraints
-        return BITSConstraints.isValidLunchBreak(period) && 
-               !hasRoomConflict(roomId, day, period, schedule) &&
-               !hasInstructorConflict(instructorId, day, period, schedule) &&
-               (course.getLabHours() <= 0 || period + BITSConstraints.LAB_DURATION <= 
-                InMemoryStore.PERIODS_PER_DAY);
+        int duration = course.getLabHours() > 0 ? BITSConstraints.LAB_DURATION : 1;
+        if (period + duration > InMemoryStore.PERIODS_PER_DAY) {
+            return false;
+        }
+        
+        for (int p = period; p < period + duration; p++) {
+            if (!BITSConstraints.isValidLunchBreak(p) || 
+                hasRoomConflict(roomId, day, p, schedule) ||
+                hasInstructorConflict(instructorId, day, p, schedule)) {
+                return false;
+            }
+        }
+        return true;
     }
 
+    // True if any room is in use at that time
     public static boolean hasTimeConflict(Schedule schedule, int day, int period) {
-        for (ScheduleSlot slot : schedule.getSlots()[day]) {
-            if (slot.getPeriod() == period && !slot.isAvailable()) {
-                return true;
-            }
-        }
-        return false;
+        return !schedule.getSlots(day, period).isEmpty();
     }
     
 }
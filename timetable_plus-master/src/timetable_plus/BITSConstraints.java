@@ -18,6 +18,41 @@ public class BITSConstraints {
         return period < LUNCH_START || period >= LUNCH_END;
     }
     
+    // How many courses one faculty member may take sessions of this type for
+    public static int maxCoursesPerFaculty(String sessionType) {
+        switch (sessionType) {
+            case "lecture":
+                return MAX_LECTURES_PER_FACULTY;
+            case "tutorial":
+                return MAX_TUTORIALS_PER_FACULTY;
+            case "lab":
+                return MAX_LABS_PER_FACULTY;
+            default:
+                return 0;
+        }
+    }
+    
+    // Courses of this session type the faculty member can still take, after
+    // those already counted against them in the store (the same counts
+    // validateFacultyWorkload checks)
+    public static int remainingCourses(String facultyId, String sessionType, InMemoryStore store) {
+        int assigned;
+        switch (sessionType) {
+            case "lecture":
+                assigned = store.getFacultyLectureCount(facultyId);
+                break;
+            case "tutorial":
+                assigned = store.getFacultyTutorialCount(facultyId);
+                break;
+            case "lab":
+                assigned = store.getFacultyLabCount(facultyId);
+                break;
+            default:
+                return 0;
+        }
+        return Math.max(0, maxCoursesPerFaculty(sessionType) - assigned);
+    }
+    
     public static void validateLunchBreak(int period) throws LunchBreakException {
         if (!isValidLunchBreak(period)) {
             throw new LunchBreakException();
@@ -1,37 +1,179 @@
 package timetable_plus;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import timetable_plus.exceptions.*;
 
 public class BITSTimetableEngine {
-    // Genetic algorithm parameters
-    private static final int POPULATION_SIZE = 100;
-    private static final double MUTATION_RATE = 0.02;
-    private static final int TOURNAMENT_SIZE = 5;
-    private static final int MAX_GENERATIONS = 1000;
+    // Population slices smaller than this are scored on the current worker
+    private static final int FITNESS_SPLIT_THRESHOLD = 8;
+    
+    // Island model: individuals each island sends at every migration
+    private static final int MIGRANTS_PER_ISLAND = 2;
+    
+    // Mutation rounds applied to each individual a restart brings in
+    private static final int RESTART_MUTATION_ROUNDS = 5;
+    
+    // Mutations tried on a child that duplicates a member of the new population
+    private static final int DUPLICATE_RETRIES = 3;
+    
+    // Why the last optimization run ended
+    public enum StopReason {
+        TARGET_REACHED,
+        GENERATION_LIMIT,
+        STAGNATION, // no improvement for the stagnation limit, or still none after the last restart
+        TIME_LIMIT,
+        CANCELLED,
+        INFEASIBLE // pre-check or constraint search proved no complete timetable exists
+    }
     
     private InMemoryStore store;
-    private Random random = new Random();
+    // Per-run random streams, all derived from the run's seed
+    private long seed;
+    private SplittableRandom streams;
+    private ResumableRandom random;
+    // Instructor workloads for the current run, copied from the store so a
+    // run never changes the store and every run starts from the same state
+    private Map<String, Instructor> workloads;
+    private SolverConfig config;
+    private long deadlineNanos; // 0 when the run has no time limit
+    private long startNanos;
+    private volatile StopReason lastStopReason;
+    private int lastMovedSessions;
+    private int lastPlacedHours;
+    private FeasibilityCheck lastFeasibilityCheck;
+    private List<PlacementDiagnosis> lastDiagnoses = new ArrayList<>();
+    private volatile IOException lastCheckpointFailure;
+    private SolverProgress.Listener progressListener;
+    private final LongAdder evaluations = new LongAdder();
+    private final AtomicInteger restarts = new AtomicInteger(); // across all islands
+    private final LongAdder cacheHits = new LongAdder();
+    private SoftConstraints soft; // scoring kernel of the running optimization
+    private GenomeCodec codec; // and its ids, for checkpoints
+    private String scheduleName;
+    private List<ScheduleGenome> survivors; // final population(s) of the last GA run
+    // More than 1 while generateAlternatives runs: islands start from that
+    // many heuristic timetables and never exchange individuals
+    private int niches = 1;
     
     public BITSTimetableEngine() {
-        this.store = InMemoryStore.getInstance();
+        this(new SolverConfig());
+    }
+    
+    public BITSTimetableEngine(SolverConfig config) {
+        this(InMemoryStore.getInstance(), config);
     }
     
+    // Works on the given store (e.g. a snapshot) instead of the shared one
+    BITSTimetableEngine(InMemoryStore store, SolverConfig config) {
+        if (config == null) {
+            throw new IllegalArgumentException("Solver config cannot be null");
+        }
+        this.store = store;
+        this.config = config;
+    }
+    
+    public SolverConfig getConfig() {
+        return config;
+    }
+    
+    public StopReason getLastStopReason() {
+        return lastStopReason;
+    }
+    
+    // Pre-check of the last generateSchedule call, or null if it was disabled
+    public FeasibilityCheck getLastFeasibilityCheck() {
+        return lastFeasibilityCheck;
+    }
+    
+    // Why each session the last run left out could not be placed
+    public List<PlacementDiagnosis> getLastDiagnoses() {
+        return Collections.unmodifiableList(lastDiagnoses);
+    }
+    
+    // Sessions of the previous timetable that the last repair dropped or re-placed
+    public int getLastMovedSessions() {
+        return lastMovedSessions;
+    }
+    
+    // Hours the last repair had to place anew
+    public int getLastPlacedHours() {
+        return lastPlacedHours;
+    }
+    
+    // Partial population restarts during the last run (see ConvergenceMonitor)
+    public int getLastRestartCount() {
+        return restarts.get();
+    }
+    
+    // Scores the last run took from its fitness caches instead of computing
+    public long getLastCacheHits() {
+        return cacheHits.sum();
+    }
+    
+    // Seed of the last run (the configured one, or the one drawn for it)
+    public long getLastSeed() {
+        return seed;
+    }
+    
+    // Why the last run's latest checkpoint could not be written, or null if
+    // it was saved (or none was due); the previous checkpoint file, if any,
+    // is the one a resume would read
+    public IOException getLastCheckpointFailure() {
+        return lastCheckpointFailure;
+    }
+    
+    // Receives a progress snapshot after every generation (or migration epoch)
+    public void setProgressListener(SolverProgress.Listener listener) {
+        this.progressListener = listener;
+    }
+    
+    // Builds a timetable within the configured budget. If the time limit
+    // expires or the run is cancelled, the best schedule found so far is
+    // returned; see getLastStopReason(). The run's seed is recorded on the
+    // schedule: the same seed, config and store data give the same
+    // timetable, unless the run is cut short by the time limit or a cancel.
+    // If the pre-check is on and proves the data infeasible, no search is
+    // run: the empty schedule comes back with StopReason.INFEASIBLE and the
+    // problems are in getLastFeasibilityCheck().
     public Schedule generateSchedule() {
         Schedule schedule = new Schedule("Generated " + new Date().toString());
+        startRun();
+        schedule.setSeed(seed);
+        
+        lastFeasibilityCheck = null;
+        if (config.isPreCheckEnabled()) {
+            lastFeasibilityCheck = new FeasibilityCheck(store);
+            lastFeasibilityCheck.run();
+            if (!lastFeasibilityCheck.isFeasible()) {
+                lastStopReason = StopReason.INFEASIBLE;
+                return schedule;
+            }
+        }
+        
+        if (config.getAlgorithm() == SolverConfig.Algorithm.CONSTRAINT_SEARCH) {
+            return searchSchedule(schedule);
+        }
         
         try {
-            // First allocate labs (they need consecutive slots)
-            allocateLabSessions(schedule);
+            allocateSessions(schedule);
             
-            // Then allocate lectures with day gaps
-            allocateLectureSessions(schedule);
-            
-            // Finally allocate tutorials
-            allocateTutorialSessions(schedule);
-            
-            // Optimize using genetic algorithm
-            optimizeSchedule(schedule);
+            // Optimize using genetic algorithm, or polish with local search
+            if (config.getAlgorithm() == SolverConfig.Algorithm.LOCAL_SEARCH) {
+                polishLocally(schedule);
+            } else {
+                optimizeSchedule(schedule);
+            }
             
             return schedule;
         } catch (Exception e) {
@@ -40,6 +182,369 @@ public class BITSTimetableEngine {
         }
     }
     
+    // Several good timetables that really differ, from one GA run. The run
+    // uses at least 'count' islands as niches: each starts from its own
+    // heuristic timetable and there is no migration, so they evolve apart,
+    // in parallel. The alternatives are picked best first from all final
+    // individuals, each at least 'minDistance' away from those already
+    // picked (the share of occupied cells whose session differs, see
+    // ScheduleGenome.distanceTo). The first is the run's best timetable.
+    // Fewer than 'count' come back when the populations do not hold enough
+    // distinct ones, and just one when the run did not reach the GA (other
+    // algorithms, an infeasible pre-check or a failed allocation).
+    public List<Schedule> generateAlternatives(int count, double minDistance) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Alternative count must be at least 1");
+        }
+        if (minDistance <= 0 || minDistance > 1) {
+            throw new IllegalArgumentException("Minimum distance must be above 0 and at most 1");
+        }
+        
+        SolverConfig requested = config;
+        if (config.getIslandCount() < count) {
+            config = config.copy().withIslands(count, config.getMigrationInterval(), config.getMigrationTopology());
+        }
+        niches = count;
+        
+        List<Schedule> alternatives = new ArrayList<>();
+        try {
+            Schedule best = generateSchedule();
+            alternatives.add(best);
+            if (survivors == null) {
+                return alternatives;
+            }
+            
+            List<ScheduleGenome> ranked = new ArrayList<>(survivors);
+            ranked.sort(Comparator.comparingDouble(this::getFitness).reversed());
+            List<ScheduleGenome> picked = new ArrayList<>();
+            picked.add(ranked.get(0));
+            
+            for (ScheduleGenome candidate : ranked) {
+                if (picked.size() == count) break;
+                if (isFarFromAll(candidate, picked, minDistance)) {
+                    picked.add(candidate);
+                }
+            }
+            
+            for (int i = 1; i < picked.size(); i++) {
+                Schedule alternative = new Schedule(best.getName() + " (option " + (i + 1) + ")");
+                alternative.setSeed(seed);
+                codec.decode(picked.get(i), alternative);
+                alternative.setCachedFitness(getFitness(picked.get(i)));
+                alternatives.add(alternative);
+            }
+            return alternatives;
+        } finally {
+            config = requested;
+            niches = 1;
+        }
+    }
+    
+    private static boolean isFarFromAll(ScheduleGenome candidate, List<ScheduleGenome> picked, double minDistance) {
+        for (ScheduleGenome other : picked) {
+            if (candidate.distanceTo(other) < minDistance) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Quick improvement of an existing timetable (e.g. one the user edited)
+    // by a single simulated annealing or tabu search trajectory; locked
+    // slots stay where they are. The schedule is updated in place.
+    public Schedule polishSchedule(Schedule schedule) {
+        startRun();
+        polishLocally(schedule);
+        return schedule;
+    }
+    
+    // Carries on with a GA run from the checkpoint it last wrote (see
+    // SolverConfig.withCheckpoints). With the same store data and the same
+    // config the result is exactly the timetable the uninterrupted run would
+    // have produced, unless either run is cut short by the time limit or a
+    // cancel; the time limit counts from the resume. The new run keeps
+    // writing checkpoints if they are configured.
+    public Schedule resumeSchedule(File checkpoint) throws IOException {
+        startRun();
+        lastFeasibilityCheck = null;
+        
+        codec = new GenomeCodec(store, new Schedule(""));
+        GenerationCheckpoint saved = GenerationCheckpoint.read(checkpoint, codec, config);
+        seed = saved.getSeed();
+        evaluations.add(saved.getEvaluations());
+        restarts.set(saved.getRestarts());
+        
+        Schedule schedule = new Schedule(saved.getScheduleName());
+        schedule.setSeed(seed);
+        runOptimization(schedule, null, saved);
+        return schedule;
+    }
+    
+    // Warm start after course data changed (enrollment, instructors, hours):
+    // returns a copy of 'current' in which every locked session, and every
+    // session that is still valid, stays exactly where it was. Only the hours
+    // that were invalidated or are newly required get placed, and only they
+    // are moved by the short local search that tidies up afterwards.
+    public Schedule repairSchedule(Schedule current) {
+        if (current == null) {
+            throw new IllegalArgumentException("Schedule cannot be null");
+        }
+        
+        startRun();
+        Schedule repaired = new Schedule("Repaired " + current.getName());
+        repaired.setSeed(seed);
+        
+        Set<String> held = keepValidSessions(current, repaired);
+        lastPlacedHours = placeMissingHours(repaired);
+        
+        if (lastPlacedHours > 0 && calculateFitness(repaired) < config.getTargetFitness()) {
+            // Hold the kept sessions in place while the new ones are improved
+            for (ScheduleSlot slot : repaired.getSlots()) {
+                if (held.contains(cellKey(slot))) {
+                    slot.setLocked(true);
+                }
+            }
+            polishLocally(repaired);
+            for (ScheduleSlot slot : repaired.getSlots()) {
+                if (held.contains(cellKey(slot))) {
+                    slot.setLocked(false);
+                }
+            }
+        } else {
+            lastStopReason = calculateFitness(repaired) >= config.getTargetFitness() ? 
+                             StopReason.TARGET_REACHED : StopReason.GENERATION_LIMIT;
+        }
+        
+        reportProgress(0, calculateFitness(repaired));
+        return repaired;
+    }
+    
+    // Copies locked sessions, then every unlocked session that is still valid
+    // against the store's current data and the sessions kept so far. Returns
+    // the cells of the kept unlocked sessions.
+    private Set<String> keepValidSessions(Schedule current, Schedule repaired) {
+        Map<String, Integer> keptHours = new HashMap<>();
+        List<ScheduleSlot> unlocked = new ArrayList<>();
+        Set<String> held = new HashSet<>();
+        
+        for (ScheduleSlot slot : current.getSlots()) {
+            if (slot.getCourse() == null || slot.getRoomNumber() == null) continue;
+            
+            if (slot.isLocked()) {
+                Course course = store.getCourse(slot.getCourse().getCourseCode());
+                keep(slot, course != null ? course : slot.getCourse(), repaired, keptHours).setLocked(true);
+            } else {
+                unlocked.add(slot);
+            }
+        }
+        
+        lastMovedSessions = 0;
+        for (ScheduleSlot slot : unlocked) {
+            Course course = store.getCourse(slot.getCourse().getCourseCode());
+            if (course != null && isStillValid(slot, course, repaired) && 
+                keptHours.getOrDefault(course.getCourseCode(), 0) < ConflictCounters.requiredHours(course)) {
+                held.add(cellKey(keep(slot, course, repaired, keptHours)));
+            } else {
+                lastMovedSessions++;
+            }
+        }
+        
+        return held;
+    }
+    
+    private ScheduleSlot keep(ScheduleSlot slot, Course course, Schedule repaired, Map<String, Integer> keptHours) {
+        keptHours.merge(course.getCourseCode(), 1, Integer::sum);
+        return repaired.allocate(course, slot.getRoomNumber(), slot.getInstructorId(), slot.getDay(), slot.getPeriod());
+    }
+    
+    // Room still suitable, instructor still on the course, outside lunch, and
+    // no clash with what has been kept
+    private boolean isStillValid(ScheduleSlot slot, Course course, Schedule repaired) {
+        Classroom room = store.getClassroom(slot.getRoomNumber());
+        String instructorId = slot.getInstructorId();
+        
+        if (room == null || !room.canHostCourse(course)) return false;
+        if (instructorId == null || !course.getInstructors().contains(instructorId) || 
+            !workloads.containsKey(instructorId)) return false;
+        if (!BITSConstraints.isValidLunchBreak(slot.getPeriod())) return false;
+        
+        return repaired.isRoomFree(slot.getRoomNumber(), slot.getDay(), slot.getPeriod()) && 
+               !isTeaching(instructorId, slot.getDay(), slot.getPeriod(), repaired);
+    }
+    
+    // Exact per-period check; the occupancy masks extend every lab-course
+    // session over a whole lab block, which would reject the second period
+    // of a kept block
+    private static boolean isTeaching(String instructorId, int day, int period, Schedule schedule) {
+        for (ScheduleSlot other : schedule.getSlots(day, period)) {
+            if (instructorId.equals(other.getInstructorId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String cellKey(ScheduleSlot slot) {
+        return slot.getRoomNumber() + "|" + slot.getDay() + "|" + slot.getPeriod();
+    }
+    
+    // Places the hours each course is still short of: lab blocks first for
+    // courses with labs, then single periods. Each block takes the first free
+    // time, room and instructor that keeps the course's days spaced out, or
+    // failing that any free one. Returns the number of hours placed.
+    private int placeMissingHours(Schedule schedule) {
+        int placed = 0;
+        
+        for (Course course : store.getAllCourses().values()) {
+            int missing = ConflictCounters.requiredHours(course) - schedule.getCourseAllocations(course).size();
+            
+            List<Classroom> rooms = findSuitableRooms(course);
+            List<String> instructors = new ArrayList<>();
+            for (String instructorId : course.getInstructors()) {
+                if (workloads.containsKey(instructorId)) {
+                    instructors.add(instructorId);
+                }
+            }
+            
+            while (missing > 0) {
+                int duration = course.getLabHours() > 0 && missing >= BITSConstraints.LAB_DURATION ? 
+                               BITSConstraints.LAB_DURATION : 1;
+                if (!placeBlock(course, duration, rooms, instructors, schedule)) {
+                    int hour = ConflictCounters.requiredHours(course) - missing + 1;
+                    diagnoseUnplaced(new Session(course, duration > 1 ? Session.LAB : Session.LECTURE, hour), 
+                                     rooms, schedule);
+                    break;
+                }
+                missing -= duration;
+                placed += duration;
+            }
+        }
+        
+        return placed;
+    }
+    
+    private boolean placeBlock(Course course, int duration, List<Classroom> rooms, 
+                               List<String> instructors, Schedule schedule) {
+        int[] fallback = null;
+        
+        for (int day = 0; day < InMemoryStore.WORKING_DAYS; day++) {
+            boolean spaced = !BITSConflictChecker.hasCourseConflict(course, day, schedule);
+            if (!spaced && fallback != null) continue;
+            
+            for (int period = 0; period + duration <= InMemoryStore.PERIODS_PER_DAY; period++) {
+                for (int r = 0; r < rooms.size(); r++) {
+                    for (int i = 0; i < instructors.size(); i++) {
+                        if (!isBlockFree(rooms.get(r).getRoomNumber(), instructors.get(i), 
+                                         day, period, duration, schedule)) continue;
+                        
+                        if (spaced) {
+                            allocateBlock(course, rooms.get(r).getRoomNumber(), instructors.get(i), 
+                                          day, period, duration, schedule);
+                            return true;
+                        }
+                        if (fallback == null) {
+                            fallback = new int[]{day, period, r, i};
+                        }
+                    }
+                }
+            }
+        }
+        
+        if (fallback == null) return false;
+        
+        allocateBlock(course, rooms.get(fallback[2]).getRoomNumber(), instructors.get(fallback[3]), 
+                      fallback[0], fallback[1], duration, schedule);
+        return true;
+    }
+    
+    private static boolean isBlockFree(String roomId, String instructorId, int day, int period, 
+                                       int duration, Schedule schedule) {
+        for (int p = period; p < period + duration; p++) {
+            if (!BITSConstraints.isValidLunchBreak(p) || !schedule.isRoomFree(roomId, day, p) || 
+                isTeaching(instructorId, day, p, schedule)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static void allocateBlock(Course course, String roomId, String instructorId, 
+                                      int day, int period, int duration, Schedule schedule) {
+        for (int p = period; p < period + duration; p++) {
+            schedule.allocate(course, roomId, instructorId, day, p);
+        }
+    }
+    
+    private void startRun() {
+        startNanos = System.nanoTime();
+        deadlineNanos = config.getTimeLimitMillis() > 0 ? 
+                        startNanos + config.getTimeLimitMillis() * 1_000_000L : 0;
+        lastStopReason = null;
+        lastCheckpointFailure = null;
+        lastDiagnoses = new ArrayList<>();
+        survivors = null;
+        evaluations.reset();
+        cacheHits.reset();
+        restarts.set(0);
+        
+        // The main thread uses one split stream; each island gets its own
+        seed = config.getSeed() != null ? config.getSeed() : new SplittableRandom().nextLong();
+        streams = new SplittableRandom(seed);
+        random = new ResumableRandom(streams.split().nextLong());
+        
+        resetWorkloads();
+    }
+    
+    private void resetWorkloads() {
+        workloads = new HashMap<>();
+        for (Instructor instructor : store.getAllInstructors().values()) {
+            workloads.put(instructor.getInstructorId(),
+                          new Instructor(instructor.getInstructorId(), instructor.getName())
+                              .withAssignedLectures(instructor.getLecturesAssigned())
+                              .withAssignedTutorials(instructor.getTutorialsAssigned())
+                              .withAssignedLabs(instructor.getLabsAssigned()));
+        }
+    }
+    
+    private void polishLocally(Schedule schedule) {
+        GenomeCodec codec = new GenomeCodec(store, schedule);
+        LocalSearch search = new LocalSearch(config, random, startNanos, deadlineNanos);
+        search.setProgressListener(progressListener);
+        
+        ScheduleGenome best = search.optimize(codec.encode(schedule));
+        evaluations.add(search.getEvaluations());
+        lastStopReason = search.getStopReason();
+        
+        codec.decode(best, schedule);
+        schedule.setCachedFitness(fitnessFor(best.getConflicts(), codec.newSoftConstraints(config).penalty(best)));
+    }
+    
+    // Exact mode: place every session by backtracking search. When no complete
+    // timetable exists (or the budget runs out) the deepest partial one is returned.
+    private Schedule searchSchedule(Schedule schedule) {
+        ConstraintSolver solver = new ConstraintSolver(store, config, deadlineNanos);
+        solver.solve(schedule);
+        
+        // The reason comes from the score, the same test the other modes use;
+        // a search that ran out of time can still have reached the target
+        double fitness = calculateFitness(schedule);
+        if (fitness >= config.getTargetFitness()) {
+            lastStopReason = StopReason.TARGET_REACHED;
+        } else if (solver.getStatus() == ConstraintSolver.Status.INFEASIBLE) {
+            lastStopReason = StopReason.INFEASIBLE;
+        } else {
+            StopReason interruption = checkInterruption();
+            lastStopReason = interruption != null ? interruption : StopReason.GENERATION_LIMIT;
+        }
+        
+        for (Session session : solver.getUnplacedSessions()) {
+            diagnoseUnplaced(session, store.getCandidateRooms(session.getCourse()), schedule);
+        }
+        
+        reportProgress(0, fitness);
+        return schedule;
+    }
+    
     private void allocateLabSessions(Schedule schedule) throws BITSConstraintException {
         for (Course course : store.getAllCourses().values()) {
             if (course.getLabHours() > 0) {
@@ -49,11 +554,12 @@ public class BITSTimetableEngine {
     }
     
     private void allocateLabForCourse(Course course, Schedule schedule) throws BITSConstraintException {
-        List<Classroom> suitableLabs = findSuitableLabs(course);
-        if (suitableLabs.isEmpty()) return;
-        
+        List<Classroom> suitableLabs = findSuitableRooms(course);
         List<String> eligibleInstructors = findEligibleInstructors(course, "lab");
-        if (eligibleInstructors.isEmpty()) return;
+        if (suitableLabs.isEmpty() || eligibleInstructors.isEmpty()) {
+            diagnoseUnplaced(new Session(course, Session.LAB, 1), suitableLabs, schedule);
+            return;
+        }
         
         boolean allocated = false;
         int attempts = 0;
@@ -79,12 +585,11 @@ public class BITSTimetableEngine {
                                                             instructorId, day, period, schedule)) {
                         // Allocate lab session (2 consecutive slots)
                         for (int i = 0; i < BITSConstraints.LAB_DURATION; i++) {
-                            schedule.getSlot(day, period + i).allocate(
-                                course, lab.getRoomNumber(), instructorId);
+                            schedule.allocate(course, lab.getRoomNumber(), instructorId, day, period + i);
                         }
                         
                         // Update instructor workload
-                        store.getInstructor(instructorId).assignCourse(course.getCourseCode(), "lab");
+                        workloads.get(instructorId).assignCourse(course.getCourseCode(), "lab");
                         allocated = true;
                         break;
                     }
@@ -92,6 +597,10 @@ public class BITSTimetableEngine {
                 if (allocated) break;
             }
         }
+        
+        if (!allocated) {
+            diagnoseUnplaced(new Session(course, Session.LAB, 1), suitableLabs, schedule);
+        }
     }
     
     private void allocateLectureSessions(Schedule schedule) throws BITSConstraintException {
@@ -103,17 +612,17 @@ public class BITSTimetableEngine {
     }
     
     private void allocateLecturesForCourse(Course course, Schedule schedule) throws BITSConstraintException {
-        List<Classroom> suitableLectureRooms = findSuitableLectureRooms(course);
-        if (suitableLectureRooms.isEmpty()) return;
-        
+        List<Classroom> suitableLectureRooms = findSuitableRooms(course);
         List<String> eligibleInstructors = findEligibleInstructors(course, "lecture");
-        if (eligibleInstructors.isEmpty()) return;
         
         int lecturesAllocated = 0;
+        int attempts = 0;
         int maxAttempts = 100;
         
         // Typically 3 lectures per week
-        while (lecturesAllocated < course.getLectureHours() && lecturesAllocated < maxAttempts) {
+        while (!suitableLectureRooms.isEmpty() && !eligibleInstructors.isEmpty() &&
+               lecturesAllocated < course.getLectureHours() && attempts < maxAttempts) {
+            attempts++;
             int day = random.nextInt(InMemoryStore.WORKING_DAYS);
             int period = random.nextInt(InMemoryStore.PERIODS_PER_DAY);
             
@@ -132,10 +641,9 @@ public class BITSTimetableEngine {
                 for (Classroom room : suitableLectureRooms) {
                     if (BITSConflictChecker.isValidAllocation(course, room.getRoomNumber(), 
                                                             instructorId, day, period, schedule)) {
-                        schedule.getSlot(day, period).allocate(
-                            course, room.getRoomNumber(), instructorId);
+                        schedule.allocate(course, room.getRoomNumber(), instructorId, day, period);
                         
-                        store.getInstructor(instructorId).assignCourse(course.getCourseCode(), "lecture");
+                        workloads.get(instructorId).assignCourse(course.getCourseCode(), "lecture");
                         lecturesAllocated++;
                         break;
                     }
@@ -143,6 +651,15 @@ public class BITSTimetableEngine {
                 if (lecturesAllocated > 0) break;
             }
         }
+        
+        for (int n = lecturesAllocated + 1; n <= course.getLectureHours(); n++) {
+            diagnoseUnplaced(new Session(course, Session.LECTURE, n), suitableLectureRooms, schedule);
+        }
+    }
+    
+    // Records why a session was left out; see getLastDiagnoses()
+    private void diagnoseUnplaced(Session session, List<Classroom> rooms, Schedule schedule) {
+        lastDiagnoses.add(PlacementDiagnosis.diagnose(session, rooms, schedule, workloads));
     }
     
     private void allocateTutorialSessions(Schedule schedule) throws BITSConstraintException {
@@ -153,39 +670,69 @@ public class BITSTimetableEngine {
         }
     }
     
+    // Like lectures, but a tutorial may share a day with the course's other
+    // sessions; it only has to keep clear of the days around them
     private void allocateTutorialForCourse(Course course, Schedule schedule) throws BITSConstraintException {
-        // Similar implementation to lectures but for tutorials
-    }
-    
-    private List<Classroom> findSuitableLabs(Course course) {
-        List<Classroom> suitableLabs = new ArrayList<>();
+        List<Classroom> suitableRooms = findSuitableRooms(course);
+        List<String> eligibleInstructors = findEligibleInstructors(course, "tutorial");
+        
+        int tutorialsAllocated = 0;
+        int attempts = 0;
+        int maxAttempts = 100;
         
-        for (Classroom room : store.getAllClassrooms().values()) {
-            if (room.isLab() && room.canHostCourse(course)) {
-                suitableLabs.add(room);
+        while (!suitableRooms.isEmpty() && !eligibleInstructors.isEmpty() &&
+               tutorialsAllocated < course.getTutorialHours() && attempts < maxAttempts) {
+            attempts++;
+            int day = random.nextInt(InMemoryStore.WORKING_DAYS);
+            int period = random.nextInt(InMemoryStore.PERIODS_PER_DAY);
+            
+            if (!BITSConstraints.isValidLunchBreak(period) || hasNearbySession(course, day, schedule)) {
+                continue;
+            }
+            
+            boolean allocated = false;
+            for (String instructorId : eligibleInstructors) {
+                for (Classroom room : suitableRooms) {
+                    if (BITSConflictChecker.isValidAllocation(course, room.getRoomNumber(), 
+                                                            instructorId, day, period, schedule)) {
+                        schedule.allocate(course, room.getRoomNumber(), instructorId, day, period);
+                        
+                        workloads.get(instructorId).assignCourse(course.getCourseCode(), "tutorial");
+                        tutorialsAllocated++;
+                        allocated = true;
+                        break;
+                    }
+                }
+                if (allocated) break;
             }
         }
         
-        return suitableLabs;
+        for (int n = tutorialsAllocated + 1; n <= course.getTutorialHours(); n++) {
+            diagnoseUnplaced(new Session(course, Session.TUTORIAL, n), suitableRooms, schedule);
+        }
     }
     
-    private List<Classroom> findSuitableLectureRooms(Course course) {
-        List<Classroom> suitableRooms = new ArrayList<>();
-        
-        for (Classroom room : store.getAllClassrooms().values()) {
-            if (!room.isLab() && room.canHostCourse(course)) {
-                suitableRooms.add(room);
-            }
+    // True if the course meets within LECTURE_GAP_DAYS of 'day' on another day
+    private static boolean hasNearbySession(Course course, int day, Schedule schedule) {
+        long nearby = 0;
+        for (int gap = 1; gap <= BITSConstraints.LECTURE_GAP_DAYS; gap++) {
+            if (day - gap >= 0) nearby |= Schedule.dayBits(day - gap);
+            if (day + gap < InMemoryStore.WORKING_DAYS) nearby |= Schedule.dayBits(day + gap);
         }
-        
-        return suitableRooms;
+        return (schedule.getCourseOccupancy(course) & nearby) != 0;
+    }
+    
+    // Range query on the store's room index, smallest suitable room first;
+    // labs for every session of a course with labs, ordinary rooms otherwise
+    private List<Classroom> findSuitableRooms(Course course) {
+        return store.getCandidateRooms(course);
     }
     
     private List<String> findEligibleInstructors(Course course, String sessionType) {
         List<String> eligible = new ArrayList<>();
         
         for (String instructorId : course.getInstructors()) {
-            Instructor instructor = store.getInstructor(instructorId);
+            Instructor instructor = workloads.get(instructorId);
             if (instructor != null && instructor.canTeach(sessionType)) {
                 eligible.add(instructorId);
             }
@@ -194,60 +741,443 @@ public class BITSTimetableEngine {
         return eligible;
     }
     
-    private void optimizeSchedule(Schedule schedule) {
+    private void allocateSessions(Schedule schedule) throws BITSConstraintException {
+        // First allocate labs (they need consecutive slots)
+        allocateLabSessions(schedule);
+        
+        // Then allocate lectures with day gaps
+        allocateLectureSessions(schedule);
+        
+        // Finally allocate tutorials
+        allocateTutorialSessions(schedule);
+    }
+    
+    private void optimizeSchedule(Schedule schedule) throws BITSConstraintException {
+        // The GA works on packed genomes; the schedule is only converted on
+        // the way in and on the way out
+        codec = new GenomeCodec(store, schedule);
+        List<ScheduleGenome> bases = new ArrayList<>();
+        bases.add(codec.encode(schedule));
+        
+        // Further starting points are allocated afresh, with the next draws
+        // of the same stream; only the first allocation's diagnoses are kept
+        List<PlacementDiagnosis> diagnoses = lastDiagnoses;
+        try {
+            for (int i = 1; i < niches; i++) {
+                Schedule start = new Schedule(schedule.getName());
+                lastDiagnoses = new ArrayList<>();
+                resetWorkloads();
+                allocateSessions(start);
+                bases.add(codec.encode(start));
+            }
+        } finally {
+            lastDiagnoses = diagnoses;
+        }
+        
+        runOptimization(schedule, bases, null);
+    }
+    
+    // Starts from 'bases' (island i from base i, round robin), or carries on
+    // from 'resumed' when it is not null
+    private void runOptimization(Schedule schedule, List<ScheduleGenome> bases, GenerationCheckpoint resumed) {
+        soft = codec.newSoftConstraints(config);
+        scheduleName = schedule.getName();
+        
+        ScheduleGenome best = config.getIslandCount() > 1 ? optimizeWithIslands(bases, resumed) : 
+                                                            optimizeSinglePopulation(bases, resumed);
+        
+        codec.decode(best, schedule);
+        schedule.setCachedFitness(getFitness(best));
+    }
+    
+    private ScheduleGenome optimizeSinglePopulation(List<ScheduleGenome> bases, GenerationCheckpoint resumed) {
         // Implement genetic algorithm optimization
-        List<Schedule> population = initializePopulation(schedule);
+        ForkJoinPool pool = config.getParallelism() > 1 ? new ForkJoinPool(config.getParallelism()) : null;
         
-        for (int generation = 0; generation < MAX_GENERATIONS; generation++) {
-            population = evolvePopulation(population);
+        try {
+            FitnessCache cache = newFitnessCache();
+            List<ScheduleGenome> population;
+            double[] fitness;
+            double bestSoFar;
+            int stagnantGenerations;
+            ConvergenceMonitor monitor;
+            int firstGeneration;
+            if (resumed == null) {
+                population = initializePopulation(bases.get(0), random);
+                fitness = evaluatePopulation(population, pool, cache);
+                bestSoFar = fitness[getBestIndex(fitness)];
+                stagnantGenerations = 0;
+                monitor = new ConvergenceMonitor(config);
+                monitor.observe(population, fitness);
+                firstGeneration = 0;
+            } else {
+                GenerationCheckpoint.Population saved = resumed.getPopulations().get(0);
+                random = saved.getRandom();
+                population = saved.getGenomes();
+                fitness = evaluatePopulation(population, pool, cache);
+                bestSoFar = resumed.getBestSoFar();
+                stagnantGenerations = resumed.getStagnantGenerations();
+                monitor = saved.getMonitor();
+                firstGeneration = resumed.getGeneration();
+            }
+            GenerationTelemetry telemetry = new GenerationTelemetry(config, -1);
+            telemetry.start();
+            lastStopReason = StopReason.GENERATION_LIMIT;
             
-            // Early termination if we have a perfect solution
-            Schedule best = getBestSchedule(population);
-            if (calculateFitness(best) >= 0.95) {
-                copySchedule(best, schedule);
-                return;
+            for (int generation = firstGeneration; generation < config.getMaxGenerations(); generation++) {
+                StopReason interruption = checkInterruption();
+                if (interruption != null) {
+                    lastStopReason = interruption;
+                    break;
+                }
+                
+                population = evolvePopulation(population, fitness, monitor.getMutationRate(), random, telemetry);
+                fitness = evaluatePopulation(population, pool, cache, telemetry);
+                ConvergenceMonitor.Action action = monitor.observe(population, fitness);
+                telemetry.emit(telemetry.poll(generation + 1, monitor, elapsedMillis()));
+                
+                // Early termination if we have a perfect solution
+                int best = getBestIndex(fitness);
+                reportProgress(generation + 1, monitor);
+                if (fitness[best] >= config.getTargetFitness()) {
+                    lastStopReason = StopReason.TARGET_REACHED;
+                    break;
+                }
+                
+                if (fitness[best] > bestSoFar) {
+                    bestSoFar = fitness[best];
+                    stagnantGenerations = 0;
+                } else if (config.getStagnationLimit() > 0 && 
+                           ++stagnantGenerations >= config.getStagnationLimit()) {
+                    lastStopReason = StopReason.STAGNATION;
+                    break;
+                }
+                
+                if (action == ConvergenceMonitor.Action.GIVE_UP) {
+                    lastStopReason = StopReason.STAGNATION;
+                    break;
+                }
+                if (action == ConvergenceMonitor.Action.RESTART) {
+                    restartPopulation(population, fitness, random);
+                    fitness = evaluatePopulation(population, pool, cache, telemetry);
+                }
+                
+                if (isCheckpointDue(generation + 1, 1)) {
+                    saveCheckpoint(generation + 1, bestSoFar, stagnantGenerations, Collections.singletonList(
+                        new GenerationCheckpoint.Population(random, monitor, population, generation + 1, false)));
+                }
+            }
+            
+            // Use the best schedule found
+            survivors = population;
+            return population.get(getBestIndex(fitness));
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+    
+    private ScheduleGenome optimizeWithIslands(List<ScheduleGenome> bases, GenerationCheckpoint resumed) {
+        ExecutorService executor = Executors.newFixedThreadPool(config.getIslandCount());
+        
+        try {
+            // Each island gets its own stream, split off in a fixed order
+            List<Island> islands = new ArrayList<>();
+            double bestSoFar;
+            int stagnantGenerations;
+            int firstGeneration;
+            if (resumed == null) {
+                for (int i = 0; i < config.getIslandCount(); i++) {
+                    islands.add(new Island(i, bases.get(i % bases.size()), 
+                                           new ResumableRandom(streams.split().nextLong())));
+                }
+                bestSoFar = getBestIsland(islands).getBestFitness();
+                stagnantGenerations = 0;
+                firstGeneration = 0;
+            } else {
+                for (int i = 0; i < config.getIslandCount(); i++) {
+                    islands.add(new Island(i, resumed.getPopulations().get(i)));
+                }
+                bestSoFar = resumed.getBestSoFar();
+                stagnantGenerations = resumed.getStagnantGenerations();
+                firstGeneration = resumed.getGeneration();
+            }
+            lastStopReason = StopReason.GENERATION_LIMIT;
+            
+            for (int generation = firstGeneration; generation < config.getMaxGenerations(); 
+                 generation += config.getMigrationInterval()) {
+                int epoch = Math.min(config.getMigrationInterval(), config.getMaxGenerations() - generation);
+                
+                List<Callable<Void>> tasks = new ArrayList<>();
+                for (Island island : islands) {
+                    tasks.add(() -> {
+                        island.evolve(epoch);
+                        return null;
+                    });
+                }
+                for (Future<Void> result : executor.invokeAll(tasks)) {
+                    result.get();
+                }
+                // Islands buffer their telemetry, so it arrives in island order
+                for (Island island : islands) {
+                    island.flushTelemetry();
+                }
+                
+                // Early termination if any island has a perfect solution
+                Island best = getBestIsland(islands);
+                reportProgress(generation + epoch, best.getBestFitness(), best.monitor.getMeanFitness(), 
+                               best.monitor.getDiversity());
+                if (best.getBestFitness() >= config.getTargetFitness()) {
+                    lastStopReason = StopReason.TARGET_REACHED;
+                    break;
+                }
+                
+                StopReason interruption = checkInterruption();
+                if (interruption != null) {
+                    lastStopReason = interruption;
+                    break;
+                }
+                
+                if (best.getBestFitness() > bestSoFar) {
+                    bestSoFar = best.getBestFitness();
+                    stagnantGenerations = 0;
+                } else if (config.getStagnationLimit() > 0 && 
+                           (stagnantGenerations += epoch) >= config.getStagnationLimit()) {
+                    lastStopReason = StopReason.STAGNATION;
+                    break;
+                }
+                
+                if (islands.stream().allMatch(island -> island.exhausted)) {
+                    lastStopReason = StopReason.STAGNATION;
+                    break;
+                }
+                
+                if (niches == 1) {
+                    migrate(islands);
+                }
+                
+                if (isCheckpointDue(generation + epoch, epoch)) {
+                    List<GenerationCheckpoint.Population> populations = new ArrayList<>();
+                    for (Island island : islands) {
+                        populations.add(island.snapshot());
+                    }
+                    saveCheckpoint(generation + epoch, bestSoFar, stagnantGenerations, populations);
+                }
             }
+            
+            // Use the best schedule found
+            survivors = new ArrayList<>();
+            for (Island island : islands) {
+                survivors.addAll(island.population);
+            }
+            return getBestIsland(islands).getBest();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Island optimization interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Island optimization failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    // True when the last 'generations' generations, ending with generation
+    // 'done', passed a multiple of the checkpoint interval
+    private boolean isCheckpointDue(int done, int generations) {
+        int interval = config.getCheckpointInterval();
+        return config.getCheckpointFile() != null && done / interval > (done - generations) / interval;
+    }
+    
+    // A checkpoint that cannot be written costs the ability to resume, not
+    // the run, so the GA carries on; the error is kept for the caller (see
+    // getLastCheckpointFailure)
+    private void saveCheckpoint(int generation, double bestSoFar, int stagnantGenerations, 
+                                List<GenerationCheckpoint.Population> populations) {
+        try {
+            new GenerationCheckpoint(seed, scheduleName, generation, bestSoFar, stagnantGenerations, 
+                                     evaluations.sum(), restarts.get(), populations)
+                .write(config.getCheckpointFile(), codec);
+            lastCheckpointFailure = null;
+        } catch (IOException e) {
+            lastCheckpointFailure = e;
+        }
+    }
+    
+    private void reportProgress(int generation, double bestFitness) {
+        reportProgress(generation, bestFitness, bestFitness, 0);
+    }
+    
+    private void reportProgress(int generation, ConvergenceMonitor monitor) {
+        reportProgress(generation, monitor.getBestFitness(), monitor.getMeanFitness(), monitor.getDiversity());
+    }
+    
+    private void reportProgress(int generation, double bestFitness, double meanFitness, double diversity) {
+        if (progressListener != null) {
+            progressListener.onProgress(new SolverProgress(generation, config.getMaxGenerations(), bestFitness,
+                                                           meanFitness, diversity, evaluations.sum(), elapsedMillis()));
+        }
+    }
+    
+    private long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+    
+    // Checked between generations; null means keep going
+    private StopReason checkInterruption() {
+        if (config.getCancellationToken().isCancelled()) {
+            return StopReason.CANCELLED;
+        }
+        if (deadlineNanos != 0 && System.nanoTime() - deadlineNanos >= 0) {
+            return StopReason.TIME_LIMIT;
+        }
+        return null;
+    }
+    
+    private Island getBestIsland(List<Island> islands) {
+        Island best = islands.get(0);
+        
+        for (Island island : islands) {
+            if (island.getBestFitness() > best.getBestFitness()) {
+                best = island;
+            }
+        }
+        
+        return best;
+    }
+    
+    // Copies each island's top individuals over the worst ones of its
+    // neighbours; all emigrants are picked before anyone is replaced
+    private void migrate(List<Island> islands) {
+        List<List<ScheduleGenome>> emigrants = new ArrayList<>();
+        for (Island island : islands) {
+            emigrants.add(island.getTop(MIGRANTS_PER_ISLAND));
         }
         
-        // Use the best schedule found
-        Schedule best = getBestSchedule(population);
-        copySchedule(best, schedule);
+        for (int i = 0; i < islands.size(); i++) {
+            List<ScheduleGenome> incoming = new ArrayList<>();
+            
+            if (config.getMigrationTopology() == SolverConfig.MigrationTopology.RING) {
+                incoming.addAll(emigrants.get((i + islands.size() - 1) % islands.size()));
+            } else {
+                for (int j = 0; j < islands.size(); j++) {
+                    if (j != i) {
+                        incoming.addAll(emigrants.get(j));
+                    }
+                }
+            }
+            
+            islands.get(i).accept(incoming);
+        }
     }
     
-    private List<Schedule> initializePopulation(Schedule base) {
-        List<Schedule> population = new ArrayList<>();
-        population.add(base); // Keep the original schedule
+    private List<ScheduleGenome> initializePopulation(ScheduleGenome base, Random rng) {
+        List<ScheduleGenome> population = new ArrayList<>();
+        population.add(base.copy()); // Keep the original schedule
         
-        for (int i = 1; i < POPULATION_SIZE; i++) {
-            Schedule mutated = mutate(cloneSchedule(base));
-            population.add(mutated);
+        for (int i = 1; i < config.getPopulationSize(); i++) {
+            population.add(mutate(base.copy(), rng));
         }
         
         return population;
     }
     
-    private List<Schedule> evolvePopulation(List<Schedule> population) {
-        List<Schedule> newPopulation = new ArrayList<>();
+    // One transposition table per population, or none when it is turned off
+    private FitnessCache newFitnessCache() {
+        return config.getFitnessCacheSize() > 0 ? new FitnessCache(config.getFitnessCacheSize()) : null;
+    }
+    
+    // Scores every individual once; the result is indexed like the population.
+    // Fitness is a pure function of the genome, so the parallel path gives
+    // exactly the same values as the sequential one. Unchanged individuals
+    // (elites, the base schedule) reuse their cached score, and timetables
+    // seen before take theirs from 'cache' (if not null). The cache is only
+    // touched on this thread, before and after the workers run.
+    private double[] evaluatePopulation(List<ScheduleGenome> population, ForkJoinPool pool, FitnessCache cache) {
+        return evaluatePopulation(population, pool, cache, null);
+    }
+    
+    // As above; 'telemetry' (if not null) is charged the time taken and the
+    // individuals actually scored, so each population counts its own
+    // evaluations however many run at once
+    private double[] evaluatePopulation(List<ScheduleGenome> population, ForkJoinPool pool, FitnessCache cache, 
+                                        GenerationTelemetry telemetry) {
+        long start = telemetry != null ? telemetry.now() : 0;
+        double[] fitness = new double[population.size()];
         
-        // Elitism - keep the best schedules
-        int eliteCount = POPULATION_SIZE / 10;
-        List<Schedule> sortedPopulation = new ArrayList<>(population);
-        sortedPopulation.sort((s1, s2) -> Double.compare(calculateFitness(s2), calculateFitness(s1)));
+        if (cache != null) {
+            int hits = 0;
+            for (ScheduleGenome genome : population) {
+                if (!genome.hasFitness() && cache.lookup(genome)) {
+                    hits++;
+                }
+            }
+            cacheHits.add(hits);
+        }
+        
+        int scored = 0;
+        for (ScheduleGenome genome : population) {
+            if (!genome.hasFitness()) scored++;
+        }
         
-        for (int i = 0; i < eliteCount; i++) {
-            newPopulation.add(cloneSchedule(sortedPopulation.get(i)));
+        if (pool == null) {
+            for (int i = 0; i < fitness.length; i++) {
+                fitness[i] = getFitness(population.get(i));
+            }
+        } else {
+            pool.invoke(new FitnessTask(population, fitness, 0, fitness.length));
+        }
+        
+        if (cache != null) {
+            for (ScheduleGenome genome : population) {
+                cache.store(genome);
+            }
+        }
+        
+        if (telemetry != null) {
+            telemetry.addEvaluation(telemetry.now() - start, scored);
+        }
+        return fitness;
+    }
+    
+    private List<ScheduleGenome> evolvePopulation(List<ScheduleGenome> population, double[] fitness, 
+                                                  double mutationRate, Random rng, GenerationTelemetry telemetry) {
+        List<ScheduleGenome> newPopulation = new ArrayList<>();
+        Set<Long> hashes = new HashSet<>(); // of the timetables already in newPopulation
+        
+        // Elitism - keep the best distinct schedules
+        int eliteCount = config.getEliteCount();
+        List<Integer> ranking = rankPopulation(fitness);
+        
+        for (int i = 0; i < ranking.size() && newPopulation.size() < eliteCount; i++) {
+            ScheduleGenome elite = population.get(ranking.get(i));
+            if (hashes.add(elite.getHash())) {
+                newPopulation.add(elite.copy());
+            }
         }
         
         // Fill rest with crossover and mutation
-        while (newPopulation.size() < POPULATION_SIZE) {
-            Schedule parent1 = tournamentSelection(population);
-            Schedule parent2 = tournamentSelection(population);
+        while (newPopulation.size() < config.getPopulationSize()) {
+            long selectionStart = telemetry.now();
+            ScheduleGenome parent1 = tournamentSelection(population, fitness, rng);
+            ScheduleGenome parent2 = tournamentSelection(population, fitness, rng);
+            
+            long crossoverStart = telemetry.now();
+            ScheduleGenome child = crossover(parent1, parent2, rng);
             
-            Schedule child = crossover(parent1, parent2);
+            long mutationStart = telemetry.now();
+            if (rng.nextDouble() < mutationRate) {
+                child = mutate(child, rng);
+            }
             
-            if (random.nextDouble() < MUTATION_RATE) {
-                child = mutate(child);
+            // A clone of a timetable already in the new population only wastes
+            // a place; mutate it until it differs (or give up after a few tries)
+            for (int attempt = 0; attempt < DUPLICATE_RETRIES && hashes.contains(child.getHash()); attempt++) {
+                child = mutate(child, rng);
             }
+            hashes.add(child.getHash());
+            telemetry.addBreeding(crossoverStart - selectionStart, mutationStart - crossoverStart, 
+                                  telemetry.now() - mutationStart);
             
             newPopulation.add(child);
         }
@@ -255,149 +1185,283 @@ public class BITSTimetableEngine {
         return newPopulation;
     }
     
-    private Schedule tournamentSelection(List<Schedule> population) {
-        List<Schedule> tournament = new ArrayList<>();
-        for (int i = 0; i < TOURNAMENT_SIZE; i++) {
-            tournament.add(population.get(random.nextInt(population.size())));
-        }
+    // Replaces the worst part of a converged population with heavily mutated
+    // copies of its best individual; the elites always survive. The caller
+    // rescores the population.
+    private void restartPopulation(List<ScheduleGenome> population, double[] fitness, Random rng) {
+        List<Integer> ranking = rankPopulation(fitness);
+        int count = Math.min((int) Math.ceil(config.getRestartFraction() * population.size()),
+                             population.size() - config.getEliteCount());
+        ScheduleGenome best = population.get(ranking.get(0));
         
-        return getBestSchedule(tournament);
+        for (int i = 0; i < count; i++) {
+            ScheduleGenome restarted = best.copy();
+            for (int round = 0; round < RESTART_MUTATION_ROUNDS; round++) {
+                mutate(restarted, rng);
+            }
+            population.set(ranking.get(ranking.size() - 1 - i), restarted);
+        }
+        restarts.incrementAndGet();
     }
     
-    private Schedule crossover(Schedule parent1, Schedule parent2) {
-        Schedule child = new Schedule("Crossover");
-        
-        // Random crossover point
-        int day = random.nextInt(InMemoryStore.WORKING_DAYS);
-        int period = random.nextInt(InMemoryStore.PERIODS_PER_DAY);
-        
-        // Copy from parent1 before crossover point
-        for (int d = 0; d < InMemoryStore.WORKING_DAYS; d++) {
-            for (int p = 0; p < InMemoryStore.PERIODS_PER_DAY; p++) {
-                if (d < day || (d == day && p <= period)) {
-                    copySlot(parent1.getSlot(d, p), child.getSlot(d, p));
-                } else {
-                    copySlot(parent2.getSlot(d, p), child.getSlot(d, p));
-                }
+    // Population indices ordered best first; the sort is stable so ties keep
+    // their population order
+    private List<Integer> rankPopulation(double[] fitness) {
+        List<Integer> ranking = new ArrayList<>();
+        for (int i = 0; i < fitness.length; i++) {
+            ranking.add(i);
+        }
+        ranking.sort((i1, i2) -> Double.compare(fitness[i2], fitness[i1]));
+        return ranking;
+    }
+    
+    private ScheduleGenome tournamentSelection(List<ScheduleGenome> population, double[] fitness, Random rng) {
+        int best = rng.nextInt(population.size());
+        for (int i = 1; i < config.getTournamentSize(); i++) {
+            int candidate = rng.nextInt(population.size());
+            if (fitness[candidate] > fitness[best]) {
+                best = candidate;
             }
         }
         
+        return population.get(best);
+    }
+    
+    // Package-private, like mutate, for the benchmarks
+    ScheduleGenome crossover(ScheduleGenome parent1, ScheduleGenome parent2, Random rng) {
+        // Random crossover point (cells run room by room, then day, then period)
+        int point = rng.nextInt(parent1.getCellCount());
+        
+        // Start from parent1 and overwrite everything after the crossover point
+        ScheduleGenome child = parent1.copy();
+        child.copyCells(parent2, point + 1, child.getCellCount());
+        
         return child;
     }
     
-    private Schedule mutate(Schedule schedule) {
+    ScheduleGenome mutate(ScheduleGenome genome, Random rng) {
         // Randomly swap some slots
-        int mutations = 1 + random.nextInt(3); // 1-3 mutations
+        int mutations = 1 + rng.nextInt(3); // 1-3 mutations
         
         for (int i = 0; i < mutations; i++) {
-            int day1 = random.nextInt(InMemoryStore.WORKING_DAYS);
-            int period1 = random.nextInt(InMemoryStore.PERIODS_PER_DAY);
-            int day2 = random.nextInt(InMemoryStore.WORKING_DAYS);
-            int period2 = random.nextInt(InMemoryStore.PERIODS_PER_DAY);
-            
-            ScheduleSlot slot1 = schedule.getSlot(day1, period1);
-            ScheduleSlot slot2 = schedule.getSlot(day2, period2);
+            // Move a session to any room and time (or trade places with the session there)
+            int cell1 = randomSessionCell(genome, rng);
+            int cell2 = rng.nextInt(genome.getCellCount());
             
             // Don't mutate locked slots or lunch time
-            if (slot1.isLocked() || slot2.isLocked() ||
-                !BITSConstraints.isValidLunchBreak(period1) || 
-                !BITSConstraints.isValidLunchBreak(period2)) {
+            if (genome.isLocked(cell1) || genome.isLocked(cell2) ||
+                !BITSConstraints.isValidLunchBreak(ScheduleGenome.periodOf(cell1)) || 
+                !BITSConstraints.isValidLunchBreak(ScheduleGenome.periodOf(cell2))) {
                 continue;
             }
             
             // Swap slots
-            Course tempCourse = slot1.getCourse();
-            String tempRoom = slot1.getRoomNumber();
-            String tempInstructor = slot1.getInstructorId();
-            
-            slot1.setCourse(slot2.getCourse());
-            slot1.setRoomNumber(slot2.getRoomNumber());
-            slot1.setInstructorId(slot2.getInstructorId());
-            
-            slot2.setCourse(tempCourse);
-            slot2.setRoomNumber(tempRoom);
-            slot2.setInstructorId(tempInstructor);
+            genome.swap(cell1, cell2);
         }
         
-        return schedule;
+        return genome;
     }
     
-    private double calculateFitness(Schedule schedule) {
-        int conflicts = 0;
-        
-        // Check all constraints
-        for (int day = 0; day < InMemoryStore.WORKING_DAYS; day++) {
-            for (int period = 0; period < InMemoryStore.PERIODS_PER_DAY; period++) {
-                ScheduleSlot slot = schedule.getSlot(day, period);
-                
-                if (slot.getCourse() == null) continue;
-                
-                // Check lunch break
-                if (!BITSConstraints.isValidLunchBreak(period)) {
-                    conflicts++;
-                }
-                
-                // Check instructor conflicts
-                if (BITSConflictChecker.hasInstructorConflict(slot.getInstructorId(), day, period, schedule)) {
-                    conflicts++;
-                }
-                
-                // Check room conflicts
-                if (BITSConflictChecker.hasRoomConflict(slot.getRoomNumber(), day, period, schedule)) {
-                    conflicts++;
-                }
-                
-                // Check lecture day spacing
-                if (BITSConflictChecker.hasCourseConflict(slot.getCourse(), day, schedule)) {
-                    conflicts++;
-                }
-            }
+    // Most cells of a multi-room genome are empty, so look for an occupied
+    // one first; falls back to any cell
+    static int randomSessionCell(ScheduleGenome genome, Random rng) {
+        int cell = rng.nextInt(genome.getCellCount());
+        for (int tries = 0; tries < genome.getCellCount() && genome.isEmpty(cell); tries++) {
+            cell = rng.nextInt(genome.getCellCount());
         }
-        
-        // Calculate fitness (0-1 range, higher is better)
-        int maxPossibleConflicts = InMemoryStore.WORKING_DAYS * InMemoryStore.PERIODS_PER_DAY;
-        return 1.0 - (double)conflicts / maxPossibleConflicts;
+        return cell;
     }
     
-    private Schedule getBestSchedule(List<Schedule> population) {
-        Schedule best = population.get(0);
-        double bestFitness = calculateFitness(best);
+    private double getFitness(ScheduleGenome genome) {
+        if (!genome.hasFitness()) {
+            genome.setFitness(fitnessFor(genome.getConflicts(), soft.penalty(genome)));
+            evaluations.increment();
+        }
+        return genome.getFitness();
+    }
+    
+    // Scores a schedule from scratch (or from its cache), with this engine's
+    // soft-constraint weights; the incremental counters inside the GA always
+    // agree with this
+    public double calculateFitness(Schedule schedule) {
+        if (!schedule.hasCachedFitness()) {
+            GenomeCodec codec = new GenomeCodec(store, schedule);
+            ScheduleGenome genome = codec.encode(schedule);
+            schedule.setCachedFitness(fitnessFor(genome.getConflicts(), codec.newSoftConstraints(config).penalty(genome)));
+        }
+        return schedule.getCachedFitness();
+    }
+    
+    // The two halves of the objective, kept apart
+    public int countHardConflicts(Schedule schedule) {
+        return new GenomeCodec(store, schedule).encode(schedule).getConflicts();
+    }
+    
+    public double calculateSoftPenalty(Schedule schedule) {
+        GenomeCodec codec = new GenomeCodec(store, schedule);
+        return codec.newSoftConstraints(config).penalty(codec.encode(schedule));
+    }
+    
+    static double fitnessFor(int conflicts) {
+        return fitnessFor(conflicts, 0);
+    }
+    
+    // Calculate fitness, in (0, 1] whatever the instance size; higher is
+    // better and 1 means no conflicts and no soft penalty. The soft penalty
+    // is squashed into [0, 1/2) of one hard conflict, so no amount of it can
+    // outweigh a hard conflict: a timetable without hard conflicts scores
+    // above 2/3 and one with any scores at most 1/2.
+    static double fitnessFor(int conflicts, double softPenalty) {
+        double squashedSoft = 0.5 * softPenalty / (1.0 + softPenalty);
+        return 1.0 / (1.0 + conflicts + squashedSoft);
+    }
+    
+    private int getBestIndex(double[] fitness) {
+        int best = 0;
         
-        for (Schedule schedule : population) {
-            double fitness = calculateFitness(schedule);
-            if (fitness > bestFitness) {
-                best = schedule;
-                bestFitness = fitness;
+        for (int i = 1; i < fitness.length; i++) {
+            if (fitness[i] > fitness[best]) {
+                best = i;
             }
         }
         
         return best;
     }
     
-    private Schedule cloneSchedule(Schedule original) {
-        Schedule clone = new Schedule(original.getName() + " (Clone)");
+    // Splits the population in halves until slices are small enough to score directly
+    private class FitnessTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
         
-        for (int day = 0; day < InMemoryStore.WORKING_DAYS; day++) {
-            for (int period = 0; period < InMemoryStore.PERIODS_PER_DAY; period++) {
-                copySlot(original.getSlot(day, period), clone.getSlot(day, period));
-            }
+        private final List<ScheduleGenome> population;
+        private final double[] fitness;
+        private final int from;
+        private final int to;
+        
+        FitnessTask(List<ScheduleGenome> population, double[] fitness, int from, int to) {
+            this.population = population;
+            this.fitness = fitness;
+            this.from = from;
+            this.to = to;
         }
         
-        return clone;
-    }
-    
-    private void copySchedule(Schedule source, Schedule target) {
-        for (int day = 0; day < InMemoryStore.WORKING_DAYS; day++) {
-            for (int period = 0; period < InMemoryStore.PERIODS_PER_DAY; period++) {
-                copySlot(source.getSlot(day, period), target.getSlot(day, period));
+        @Override
+        protected void compute() {
+            if (to - from <= FITNESS_SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    fitness[i] = getFitness(population.get(i));
+                }
+                return;
             }
+            
+            int mid = (from + to) >>> 1;
+            invokeAll(new FitnessTask(population, fitness, from, mid),
+                      new FitnessTask(population, fitness, mid, to));
         }
     }
     
-    private void copySlot(ScheduleSlot source, ScheduleSlot target) {
-        target.setCourse(source.getCourse());
-        target.setRoomNumber(source.getRoomNumber());
-        target.setInstructorId(source.getInstructorId());
-        target.setLocked(source.isLocked());
+    // One independently evolving population of the island model
+    private class Island {
+        private final ResumableRandom rng;
+        private final ConvergenceMonitor monitor;
+        private final FitnessCache cache = newFitnessCache();
+        private final GenerationTelemetry telemetry;
+        private final List<TelemetryRecord> pendingTelemetry = new ArrayList<>();
+        private List<ScheduleGenome> population;
+        private double[] fitness;
+        private int generationsDone;
+        // Gave up after its restarts; still takes part in migration
+        private volatile boolean exhausted;
+        
+        Island(int index, ScheduleGenome base, ResumableRandom rng) {
+            this.rng = rng;
+            this.monitor = new ConvergenceMonitor(config);
+            this.telemetry = new GenerationTelemetry(config, index);
+            this.population = initializePopulation(base, rng);
+            this.fitness = evaluatePopulation(population, null, cache);
+            monitor.observe(population, fitness);
+            telemetry.start();
+        }
+        
+        // Restored from a checkpoint
+        Island(int index, GenerationCheckpoint.Population saved) {
+            this.rng = saved.getRandom();
+            this.monitor = saved.getMonitor();
+            this.telemetry = new GenerationTelemetry(config, index);
+            this.population = saved.getGenomes();
+            this.fitness = evaluatePopulation(population, null, cache);
+            this.generationsDone = saved.getGenerationsDone();
+            this.exhausted = saved.isExhausted();
+            telemetry.start();
+        }
+        
+        void evolve(int generations) {
+            telemetry.resume();
+            try {
+                for (int generation = 0; generation < generations && !exhausted; generation++) {
+                    population = evolvePopulation(population, fitness, monitor.getMutationRate(), rng, telemetry);
+                    fitness = evaluatePopulation(population, null, cache, telemetry);
+                    
+                    ConvergenceMonitor.Action action = monitor.observe(population, fitness);
+                    TelemetryRecord record = telemetry.poll(++generationsDone, monitor, elapsedMillis());
+                    if (record != null) {
+                        pendingTelemetry.add(record);
+                    }
+                    if (action == ConvergenceMonitor.Action.RESTART) {
+                        restartPopulation(population, fitness, rng);
+                        fitness = evaluatePopulation(population, null, cache, telemetry);
+                    } else if (action == ConvergenceMonitor.Action.GIVE_UP) {
+                        exhausted = true;
+                    }
+                    
+                    if (getBestFitness() >= config.getTargetFitness() || checkInterruption() != null) {
+                        return;
+                    }
+                }
+            } finally {
+                telemetry.pause();
+            }
+        }
+        
+        // Called on the coordinating thread between epochs
+        void flushTelemetry() {
+            for (TelemetryRecord record : pendingTelemetry) {
+                telemetry.emit(record);
+            }
+            pendingTelemetry.clear();
+        }
+        
+        GenerationCheckpoint.Population snapshot() {
+            return new GenerationCheckpoint.Population(rng, monitor, population, generationsDone, exhausted);
+        }
+        
+        ScheduleGenome getBest() {
+            return population.get(getBestIndex(fitness));
+        }
+        
+        double getBestFitness() {
+            return fitness[getBestIndex(fitness)];
+        }
+        
+        List<ScheduleGenome> getTop(int count) {
+            List<Integer> ranking = rankPopulation(fitness);
+            List<ScheduleGenome> top = new ArrayList<>();
+            for (int i = 0; i < Math.min(count, ranking.size()); i++) {
+                top.add(population.get(ranking.get(i)));
+            }
+            return top;
+        }
+        
+        // Copies of the migrants replace the worst individuals; they arrive already scored
+        void accept(List<ScheduleGenome> migrants) {
+            List<Integer> ranking = rankPopulation(fitness);
+            int replaced = Math.min(migrants.size(), ranking.size() - 1);
+            
+            for (int i = 0; i < replaced; i++) {
+                int target = ranking.get(ranking.size() - 1 - i);
+                ScheduleGenome migrant = migrants.get(i).copy();
+                population.set(target, migrant);
+                fitness[target] = getFitness(migrant);
+            }
+        }
     }
 }
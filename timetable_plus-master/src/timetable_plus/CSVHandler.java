@@ -7,13 +7,39 @@ import java.util.List;
 public class CSVHandler {
     private static final String DELIMITER = ",";
     
+    // File names used by exportAll and importAll
+    public static final String CLASSROOMS_FILE = "classrooms.csv";
+    public static final String COURSES_FILE = "courses.csv";
+    public static final String INSTRUCTORS_FILE = "instructors.csv";
+    
+    // Writes a whole store into one directory, which importAll reads back
+    public static void exportAll(InMemoryStore store, File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        exportClassrooms(store, new File(directory, CLASSROOMS_FILE).getPath());
+        exportCourses(store, new File(directory, COURSES_FILE).getPath());
+        exportInstructors(store, new File(directory, INSTRUCTORS_FILE).getPath());
+    }
+    
+    public static void importAll(InMemoryStore store, File directory) throws IOException {
+        importClassrooms(store, new File(directory, CLASSROOMS_FILE).getPath());
+        importCourses(store, new File(directory, COURSES_FILE).getPath());
+        importInstructors(store, new File(directory, INSTRUCTORS_FILE).getPath());
+    }
+    
+    // Each export and import works on the shared store unless given another one
     public static void exportClassrooms(String filename) throws IOException {
+        exportClassrooms(InMemoryStore.getInstance(), filename);
+    }
+    
+    public static void exportClassrooms(InMemoryStore store, String filename) throws IOException {
         try (PrintWriter writer = new PrintWriter(new File(filename))) {
             // Write header
             writer.println("RoomNumber,Capacity,IsLab,HasAVEquipment");
             
             // Write data rows
-            for (Classroom room : InMemoryStore.getInstance().getAllClassrooms().values()) {
+            for (Classroom room : store.getAllClassrooms().values()) {
                 StringBuilder sb = new StringBuilder();
                 sb.append(room.getRoomNumber()).append(DELIMITER);
                 sb.append(room.getCapacity()).append(DELIMITER);
@@ -26,6 +52,10 @@ public class CSVHandler {
     }
     
     public static void importClassrooms(String filename) throws IOException {
+        importClassrooms(InMemoryStore.getInstance(), filename);
+    }
+    
+    public static void importClassrooms(InMemoryStore store, String filename) throws IOException {
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
             // Skip header
             String line = reader.readLine();
@@ -43,26 +73,33 @@ public class CSVHandler {
                     Classroom room = new Classroom(roomNumber, capacity)
                         .withAV(hasAV);
                     
-                    InMemoryStore.getInstance().addClassroom(room);
+                    store.addClassroom(room);
                 }
             }
         }
     }
     
     public static void exportCourses(String filename) throws IOException {
+        exportCourses(InMemoryStore.getInstance(), filename);
+    }
+    
+    public static void exportCourses(InMemoryStore store, String filename) throws IOException {
         try (PrintWriter writer = new PrintWriter(new File(filename))) {
             // Write header
-            writer.println("CourseCode,CourseName,Credits,LectureHours,LabHours,EnrolledStudents");
+            writer.println("CourseCode,CourseName,Credits,LectureHours,LabHours,EnrolledStudents,TutorialHours,Instructors");
             
             // Write data rows
-            for (Course course : InMemoryStore.getInstance().getAllCourses().values()) {
+            for (Course course : store.getAllCourses().values()) {
                 StringBuilder sb = new StringBuilder();
                 sb.append(course.getCourseCode()).append(DELIMITER);
                 sb.append(course.getCourseName()).append(DELIMITER);
                 sb.append(course.getCredits()).append(DELIMITER);
                 sb.append(course.getLectureHours()).append(DELIMITER);
                 sb.append(course.getLabHours()).append(DELIMITER);
-                sb.append(course.getEnrolledStudents());
+                sb.append(course.getEnrolledStudents()).append(DELIMITER);
+                sb.append(course.getTutorialHours()).append(DELIMITER);
+                // Space-separated instructor IDs
+                sb.append(String.join(" ", course.getInstructors()));
                 
                 writer.println(sb.toString());
             }
@@ -70,6 +107,11 @@ public class CSVHandler {
     }
     
     public static void importCourses(String filename) throws IOException {
+        importCourses(InMemoryStore.getInstance(), filename);
+    }
+    
+    // The tutorial hours and instructors columns are optional
+    public static void importCourses(InMemoryStore store, String filename) throws IOException {
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
             // Skip header
             String line = reader.readLine();
@@ -91,23 +133,42 @@ public class CSVHandler {
                     course.setLectureHours(lectureHours);
                     course.setLabHours(labHours);
                     course.setEnrolledStudents(students);
+                    if (values.length >= 7) {
+                        course.setTutorialHours(Integer.parseInt(values[6].trim()));
+                    }
+                    if (values.length >= 8 && !values[7].trim().isEmpty()) {
+                        for (String instructorId : values[7].trim().split("\\s+")) {
+                            course.addInstructor(instructorId);
+                        }
+                    }
                     
-                    InMemoryStore.getInstance().addCourse(course);
+                    store.addCourse(course);
                 }
             }
         }
     }
     
     public static void exportInstructors(String filename) throws IOException {
+        exportInstructors(InMemoryStore.getInstance(), filename);
+    }
+    
+    public static void exportInstructors(InMemoryStore store, String filename) throws IOException {
         try (PrintWriter writer = new PrintWriter(new File(filename))) {
             // Write header
-            writer.println("InstructorID,Name");
+            writer.println("InstructorID,Name,PreferredPeriods");
             
             // Write data rows
-            for (Instructor instructor : InMemoryStore.getInstance().getAllInstructors().values()) {
+            for (Instructor instructor : store.getAllInstructors().values()) {
                 StringBuilder sb = new StringBuilder();
                 sb.append(instructor.getInstructorId()).append(DELIMITER);
-                sb.append(instructor.getName());
+                sb.append(instructor.getName()).append(DELIMITER);
+                // Space-separated period numbers, empty for no preference
+                StringBuilder periods = new StringBuilder();
+                for (int period : instructor.getPreferredPeriods()) {
+                    if (periods.length() > 0) periods.append(' ');
+                    periods.append(period);
+                }
+                sb.append(periods);
                 
                 writer.println(sb.toString());
             }
@@ -115,6 +176,10 @@ public class CSVHandler {
     }
     
     public static void importInstructors(String filename) throws IOException {
+        importInstructors(InMemoryStore.getInstance(), filename);
+    }
+    
+    public static void importInstructors(InMemoryStore store, String filename) throws IOException {
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
             // Skip header
             String line = reader.readLine();
@@ -128,7 +193,15 @@ public class CSVHandler {
                     String name = values[1].trim();
                     
                     Instructor instructor = new Instructor(instructorID, name);
-                    InMemoryStore.getInstance().addInstructor(instructor);
+                    if (values.length >= 3 && !values[2].trim().isEmpty()) {
+                        String[] periods = values[2].trim().split("\\s+");
+                        int[] preferred = new int[periods.length];
+                        for (int i = 0; i < periods.length; i++) {
+                            preferred[i] = Integer.parseInt(periods[i]);
+                        }
+                        instructor.withPreferredPeriods(preferred);
+                    }
+                    store.addInstructor(instructor);
                 }
             }
         }
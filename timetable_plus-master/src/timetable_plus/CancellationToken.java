@@ -0,0 +1,24 @@
+package timetable_plus;
+
+// Shared flag that lets another thread (e.g. a Cancel button) stop a
+// running optimizer; the engine checks it once per generation
+public class CancellationToken {
+    private final CancellationToken parent; // cancelling the parent cancels us too
+    private volatile boolean cancelled;
+
+    public CancellationToken() {
+        this(null);
+    }
+
+    public CancellationToken(CancellationToken parent) {
+        this.parent = parent;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled || (parent != null && parent.isCancelled());
+    }
+}
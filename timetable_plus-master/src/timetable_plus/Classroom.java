@@ -35,9 +35,12 @@ public class Classroom implements Serializable {
         return this;
     }
     
+    // The one room rule every allocator, the solver and the scorer share:
+    // a course with labs meets in a lab for all of its sessions, any other
+    // course in an ordinary room
     public boolean canHostCourse(Course course) {
         return capacity >= course.getEnrolledStudents() &&
-               (course.getLabHours() == 0 || isLab);
+               (course.getLabHours() > 0) == isLab;
     }
     
     // Getters
@@ -0,0 +1,138 @@
+package timetable_plus;
+
+// Running conflict tally for one schedule. Sessions are added and removed one
+// cell at a time, and only the counters for that cell's instructor and course
+// are touched, so the optimizer can rescore a swap in O(1) instead of
+// rescanning the whole timetable. Courses, rooms and instructors are referred
+// to by the dense ids handed out by GenomeCodec; -1 means "none". A room holds
+// one session per period by construction, so rooms are only checked for
+// suitability.
+public class ConflictCounters {
+    private static final int SLOTS_PER_WEEK = Schedule.CELLS;
+
+    // Sessions per (instructor, day, period)
+    private final int[] instructorLoad;
+    // unsuitableRoom[course * roomCount + room]: the room cannot host the course; shared
+    private final boolean[] unsuitableRoom;
+    private final int roomCount;
+    // Sessions per (course, day) and per course, against the required hours
+    private final int[] courseDays;
+    private final int[] courseHours;
+    private final int[] courseDemand; // shared, never modified
+
+    private int conflicts;
+
+    // courseDemand holds the required hours of each course id; every course
+    // starts out charged for all of its missing hours
+    public ConflictCounters(int[] courseDemand, boolean[] unsuitableRoom, int roomCount, int instructorCount) {
+        this.courseDemand = courseDemand;
+        this.unsuitableRoom = unsuitableRoom;
+        this.roomCount = roomCount;
+        this.instructorLoad = new int[instructorCount * SLOTS_PER_WEEK];
+        this.courseDays = new int[courseDemand.length * InMemoryStore.WORKING_DAYS];
+        this.courseHours = new int[courseDemand.length];
+
+        for (int demand : courseDemand) {
+            conflicts += demand;
+        }
+    }
+
+    private ConflictCounters(ConflictCounters other) {
+        this.courseDemand = other.courseDemand;
+        this.unsuitableRoom = other.unsuitableRoom;
+        this.roomCount = other.roomCount;
+        this.instructorLoad = other.instructorLoad.clone();
+        this.courseDays = other.courseDays.clone();
+        this.courseHours = other.courseHours.clone();
+        this.conflicts = other.conflicts;
+    }
+
+    public ConflictCounters copy() {
+        return new ConflictCounters(this);
+    }
+
+    // Periods a course needs each week, labs counted in whole blocks as
+    // Session.requiredFor schedules them
+    public static int requiredHours(Course course) {
+        return course.getLectureHours() + course.getTutorialHours()
+               + Session.labBlocks(course) * BITSConstraints.LAB_DURATION;
+    }
+
+    public int getConflicts() {
+        return conflicts;
+    }
+
+    public void add(int course, int room, int instructor, int day, int period) {
+        update(course, room, instructor, day, period, 1);
+    }
+
+    public void remove(int course, int room, int instructor, int day, int period) {
+        update(course, room, instructor, day, period, -1);
+    }
+
+    // Conflicts are counted per session:
+    //  - a session inside the lunch break
+    //  - a session whose instructor is double-booked in that period
+    //  - a session in a room that cannot host its course
+    //  - a session whose course also meets within LECTURE_GAP_DAYS on another day
+    //  - every hour a course is short of (or over) its required hours
+    private void update(int course, int room, int instructor, int day, int period, int delta) {
+        if (course < 0) return;
+
+        int slot = day * InMemoryStore.PERIODS_PER_DAY + period;
+
+        if (!BITSConstraints.isValidLunchBreak(period)) {
+            conflicts += delta;
+        }
+
+        if (instructor >= 0) {
+            conflicts += updateLoad(instructorLoad, instructor * SLOTS_PER_WEEK + slot, delta);
+        }
+
+        if (room >= 0 && unsuitableRoom[course * roomCount + room]) {
+            conflicts += delta;
+        }
+
+        int firstDay = course * InMemoryStore.WORKING_DAYS;
+        int demand = courseDemand[course];
+        int before = spacingConflicts(firstDay, day) + Math.abs(courseHours[course] - demand);
+        courseDays[firstDay + day] += delta;
+        courseHours[course] += delta;
+        int after = spacingConflicts(firstDay, day) + Math.abs(courseHours[course] - demand);
+        conflicts += after - before;
+    }
+
+    private static int updateLoad(int[] load, int index, int delta) {
+        int before = clashes(load[index]);
+        load[index] += delta;
+        return clashes(load[index]) - before;
+    }
+
+    private static int clashes(int sessions) {
+        return sessions > 1 ? sessions : 0;
+    }
+
+    // Spacing conflicts among the days whose status can change when 'day' does
+    private int spacingConflicts(int firstDay, int day) {
+        int total = 0;
+        int from = Math.max(0, day - BITSConstraints.LECTURE_GAP_DAYS);
+        int to = Math.min(InMemoryStore.WORKING_DAYS - 1, day + BITSConstraints.LECTURE_GAP_DAYS);
+
+        for (int d = from; d <= to; d++) {
+            if (courseDays[firstDay + d] > 0 && hasNearbyDay(firstDay, d)) {
+                total += courseDays[firstDay + d];
+            }
+        }
+        return total;
+    }
+
+    private boolean hasNearbyDay(int firstDay, int day) {
+        for (int gap = 1; gap <= BITSConstraints.LECTURE_GAP_DAYS; gap++) {
+            if ((day - gap >= 0 && courseDays[firstDay + day - gap] > 0) ||
+                (day + gap < InMemoryStore.WORKING_DAYS && courseDays[firstDay + day + gap] > 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
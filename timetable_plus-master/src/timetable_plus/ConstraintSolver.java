@@ -0,0 +1,506 @@
+package timetable_plus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Exact alternative to the genetic algorithm: a backtracking search over the
+// weekly sessions with forward checking, minimum-remaining-values variable
+// ordering (ties broken by degree) and conflict-directed backjumping.
+//
+// Each session's domain is every (day, start period, room, instructor) that
+// passes the unary BITS rules: no lunch-break periods, a room of the right
+// kind and size, and one of the course's instructors. The search then
+// enforces the pairwise rules: no room or instructor double-booked, lecture
+// spacing, and per-faculty lecture/tutorial/lab limits (counted in courses).
+//
+// Either every session is placed, or the search proves that no complete
+// timetable exists. Sessions whose domain is empty from the start are
+// reported and left out of the search.
+public class ConstraintSolver {
+    public enum Status {
+        SOLVED,
+        INFEASIBLE,
+        INTERRUPTED
+    }
+
+    // How often (in search nodes) the deadline and cancellation are checked
+    private static final int INTERRUPT_CHECK_INTERVAL = 256;
+
+    private static final String[] WORKLOAD_TYPES = {Session.LECTURE, Session.TUTORIAL, Session.LAB};
+
+    private InMemoryStore store;
+    private SolverConfig config;
+    private long deadlineNanos;
+
+    private List<Session> sessions = new ArrayList<>();
+    private List<Session> unplaceable = new ArrayList<>();
+    private List<String> rooms = new ArrayList<>();
+    private Map<String, Integer> roomIds = new HashMap<>();
+    private List<String> instructors = new ArrayList<>();
+
+    // Search state, indexed by session (variable) or by search depth
+    private int[][] domain;        // packed (day, period, room, instructor) values
+    private int[][] removedBy;     // depth that removed each value, or -1 if live
+    private int[] liveValues;
+    private int[] degree;
+    private int[] assigned;        // domain index of the current value, or -1
+    private int[] depthOf;
+    private int[] varAt;
+    private BitSet[] pastFc;       // depths whose forward checking pruned this variable
+    private BitSet[] conflictSet;
+    private List<List<int[]>> pruned;   // (variable, index) pairs removed by each depth
+    private List<List<int[]>> rejected; // values tried and failed by the variable at each depth
+    private List<List<List<Integer>>> workload; // [type][instructor] -> assigned variables
+    private int[][] quota;         // [type][instructor] courses still allowed, net of the store's counts
+
+    private Status status;
+    private int[] best;            // best (deepest) assignment seen, as value codes
+    private int bestDepth = -1;
+    private long nodes;
+
+    public ConstraintSolver(InMemoryStore store, SolverConfig config, long deadlineNanos) {
+        this.store = store;
+        this.config = config;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    // Sessions that could not be placed: those with no candidate at all, plus
+    // any left out of the best partial timetable when none is complete
+    public List<Session> getUnplacedSessions() {
+        List<Session> unplaced = new ArrayList<>(unplaceable);
+        for (int var = 0; var < sessions.size(); var++) {
+            if (best == null || best[var] < 0) {
+                unplaced.add(sessions.get(var));
+            }
+        }
+        return unplaced;
+    }
+
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    // Runs the search and writes the complete timetable (or the deepest
+    // partial one) into the given schedule
+    public Schedule solve(Schedule schedule) {
+        buildDomains();
+        search();
+        writeBest(schedule);
+        return schedule;
+    }
+
+    private void buildDomains() {
+        for (Classroom room : store.getAllClassrooms().values()) {
+            roomIds.put(room.getRoomNumber(), rooms.size());
+            rooms.add(room.getRoomNumber());
+        }
+        for (Instructor instructor : store.getAllInstructors().values()) {
+            instructors.add(instructor.getInstructorId());
+        }
+
+        // Seeded from the store, as the engine's allocators and FeasibilityCheck are
+        quota = new int[WORKLOAD_TYPES.length][instructors.size()];
+        for (int type = 0; type < WORKLOAD_TYPES.length; type++) {
+            for (int i = 0; i < instructors.size(); i++) {
+                quota[type][i] = BITSConstraints.remainingCourses(instructors.get(i), WORKLOAD_TYPES[type], store);
+            }
+        }
+
+        List<int[]> domains = new ArrayList<>();
+        for (Session session : Session.requiredFor(store.getAllCourses().values())) {
+            int[] values = candidateValues(session);
+            if (values.length == 0) {
+                unplaceable.add(session);
+            } else {
+                sessions.add(session);
+                domains.add(values);
+            }
+        }
+
+        int n = sessions.size();
+        domain = domains.toArray(new int[n][]);
+        removedBy = new int[n][];
+        liveValues = new int[n];
+        assigned = new int[n];
+        depthOf = new int[n];
+        varAt = new int[n];
+        pastFc = new BitSet[n];
+        conflictSet = new BitSet[n];
+        pruned = new ArrayList<>();
+        rejected = new ArrayList<>();
+
+        for (int var = 0; var < n; var++) {
+            removedBy[var] = new int[domain[var].length];
+            Arrays.fill(removedBy[var], -1);
+            liveValues[var] = domain[var].length;
+            assigned[var] = -1;
+            depthOf[var] = -1;
+            pastFc[var] = new BitSet();
+            conflictSet[var] = new BitSet();
+            pruned.add(new ArrayList<>());
+            rejected.add(new ArrayList<>());
+        }
+
+        workload = new ArrayList<>();
+        for (int type = 0; type < WORKLOAD_TYPES.length; type++) {
+            List<List<Integer>> byInstructor = new ArrayList<>();
+            for (int i = 0; i < instructors.size(); i++) {
+                byInstructor.add(new ArrayList<>());
+            }
+            workload.add(byInstructor);
+        }
+
+        computeDegrees();
+    }
+
+    private int[] candidateValues(Session session) {
+        // Smallest suitable rooms first, which leaves big rooms for big courses
+        List<Integer> roomChoices = new ArrayList<>();
+        for (Classroom room : store.getCandidateRooms(session.getCourse())) {
+            roomChoices.add(roomIds.get(room.getRoomNumber()));
+        }
+
+        List<Integer> instructorIds = new ArrayList<>();
+        for (String instructorId : session.getCourse().getInstructors()) {
+            int i = instructors.indexOf(instructorId);
+            if (i >= 0 && quota[typeIndex(session.getType())][i] > 0) {
+                instructorIds.add(i);
+            }
+        }
+
+        List<Integer> values = new ArrayList<>();
+        for (int day = 0; day < InMemoryStore.WORKING_DAYS; day++) {
+            for (int period = 0; period < InMemoryStore.PERIODS_PER_DAY; period++) {
+                if (!session.fitsAt(period)) continue;
+                for (int room : roomChoices) {
+                    for (int instructor : instructorIds) {
+                        values.add(encode(day, period, room, instructor));
+                    }
+                }
+            }
+        }
+
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    // Static degree: how many other sessions share a course or a candidate instructor
+    private void computeDegrees() {
+        int n = sessions.size();
+        degree = new int[n];
+
+        for (int a = 0; a < n; a++) {
+            for (int b = a + 1; b < n; b++) {
+                Course ca = sessions.get(a).getCourse();
+                Course cb = sessions.get(b).getCourse();
+                boolean related = ca == cb;
+                for (String instructorId : ca.getInstructors()) {
+                    related |= cb.getInstructors().contains(instructorId);
+                }
+                if (related) {
+                    degree[a]++;
+                    degree[b]++;
+                }
+            }
+        }
+    }
+
+    private void search() {
+        int n = sessions.size();
+        int depth = 0;
+        int current = -1; // variable at 'depth' when resuming after a backjump
+
+        while (true) {
+            if (depth == n) {
+                status = Status.SOLVED;
+                return;
+            }
+
+            if (++nodes % INTERRUPT_CHECK_INTERVAL == 0 && isInterrupted()) {
+                status = Status.INTERRUPTED;
+                return;
+            }
+
+            int var = current >= 0 ? current : selectVariable();
+            current = -1;
+            varAt[depth] = var;
+            depthOf[var] = depth;
+
+            if (tryValues(var, depth)) {
+                depth++;
+                recordBest(depth);
+                continue;
+            }
+
+            // Dead end: jump back to the deepest variable involved in the conflict
+            BitSet culprits = (BitSet) conflictSet[var].clone();
+            culprits.or(pastFc[var]);
+            if (culprits.isEmpty()) {
+                status = Status.INFEASIBLE;
+                return;
+            }
+
+            int target = culprits.length() - 1;
+            for (int d = depth; d > target; d--) {
+                unassign(d);
+            }
+
+            int targetVar = varAt[target];
+            undoPruning(target);
+            releaseWorkload(targetVar);
+            reject(targetVar, assigned[targetVar], target);
+            assigned[targetVar] = -1;
+            culprits.clear(target);
+            conflictSet[targetVar].or(culprits);
+
+            depth = target;
+            current = targetVar;
+        }
+    }
+
+    // Minimum remaining values, ties broken by the larger degree
+    private int selectVariable() {
+        int best = -1;
+        for (int var = 0; var < sessions.size(); var++) {
+            if (depthOf[var] >= 0) continue;
+            if (best < 0 || liveValues[var] < liveValues[best] ||
+                (liveValues[var] == liveValues[best] && degree[var] > degree[best])) {
+                best = var;
+            }
+        }
+        return best;
+    }
+
+    // Tries the remaining values of 'var' until one survives forward checking
+    private boolean tryValues(int var, int depth) {
+        for (int index = 0; index < domain[var].length; index++) {
+            if (removedBy[var][index] >= 0) continue;
+
+            assigned[var] = index;
+            claimWorkload(var);
+
+            int wipedOut = forwardCheck(var, depth);
+            if (wipedOut < 0) {
+                return true;
+            }
+
+            undoPruning(depth);
+            releaseWorkload(var);
+            conflictSet[var].or(pastFc[wipedOut]);
+            reject(var, index, depth);
+            assigned[var] = -1;
+        }
+        return false;
+    }
+
+    // Removes future values inconsistent with var's new value; returns a
+    // variable whose domain was wiped out, or -1
+    private int forwardCheck(int var, int depth) {
+        int value = domain[var][assigned[var]];
+        Session session = sessions.get(var);
+        int type = typeIndex(session.getType());
+
+        for (int other = 0; other < sessions.size(); other++) {
+            if (depthOf[other] >= 0) continue;
+
+            Session otherSession = sessions.get(other);
+            boolean sameWorkload = typeIndex(otherSession.getType()) == type;
+
+            for (int index = 0; index < domain[other].length; index++) {
+                if (removedBy[other][index] >= 0) continue;
+
+                int otherValue = domain[other][index];
+                if (conflicts(session, value, otherSession, otherValue)) {
+                    prune(other, index, depth);
+                    pastFc[other].set(depth);
+                } else if (sameWorkload && instructorOf(otherValue) == instructorOf(value)) {
+                    BitSet blockers = workloadBlockers(otherSession, otherValue);
+                    if (blockers != null) {
+                        prune(other, index, depth);
+                        pastFc[other].set(depth);
+                        pastFc[other].or(blockers);
+                    }
+                }
+            }
+
+            if (liveValues[other] == 0) {
+                return other;
+            }
+        }
+        return -1;
+    }
+
+    private boolean conflicts(Session a, int valueA, Session b, int valueB) {
+        int dayA = dayOf(valueA);
+        int dayB = dayOf(valueB);
+
+        if (dayA == dayB) {
+            int periodA = periodOf(valueA);
+            int periodB = periodOf(valueB);
+            // Overlapping sessions need different rooms and instructors
+            if (periodA < periodB + b.getDuration() && periodB < periodA + a.getDuration() &&
+                (roomOf(valueA) == roomOf(valueB) || instructorOf(valueA) == instructorOf(valueB))) {
+                return true;
+            }
+        }
+
+        if (a.getCourse() == b.getCourse()) {
+            int gap = Math.abs(dayA - dayB);
+            if (gap > 0 && gap <= BITSConstraints.LECTURE_GAP_DAYS) {
+                return true;
+            }
+            // Lectures of one course also need separate days
+            if (gap == 0 && a.isLecture() && b.isLecture()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // Depths of the assignments that fill the instructor's remaining quota for
+    // this session type with other courses, or null if the value is still
+    // allowed. Instructors with no quota left never enter a domain, so a
+    // full quota always has a blocker.
+    private BitSet workloadBlockers(Session session, int value) {
+        int type = typeIndex(session.getType());
+        List<Integer> load = workload.get(type).get(instructorOf(value));
+
+        List<Course> courses = new ArrayList<>();
+        BitSet blockers = new BitSet();
+        for (int var : load) {
+            Course course = sessions.get(var).getCourse();
+            if (course == session.getCourse()) {
+                return null; // already teaching this course's sessions of this type
+            }
+            if (!courses.contains(course)) {
+                courses.add(course);
+            }
+            blockers.set(depthOf[var]);
+        }
+        return courses.size() >= quota[type][instructorOf(value)] ? blockers : null;
+    }
+
+    private void claimWorkload(int var) {
+        int type = typeIndex(sessions.get(var).getType());
+        workload.get(type).get(instructorOf(domain[var][assigned[var]])).add(var);
+    }
+
+    private void releaseWorkload(int var) {
+        int type = typeIndex(sessions.get(var).getType());
+        workload.get(type).get(instructorOf(domain[var][assigned[var]])).remove(Integer.valueOf(var));
+    }
+
+    private void prune(int var, int index, int depth) {
+        removedBy[var][index] = depth;
+        liveValues[var]--;
+        pruned.get(depth).add(new int[]{var, index});
+    }
+
+    private void reject(int var, int index, int depth) {
+        removedBy[var][index] = depth;
+        liveValues[var]--;
+        rejected.get(depth).add(new int[]{var, index});
+    }
+
+    private void undoPruning(int depth) {
+        for (int[] entry : pruned.get(depth)) {
+            removedBy[entry[0]][entry[1]] = -1;
+            liveValues[entry[0]]++;
+        }
+        pruned.get(depth).clear();
+
+        // Forget this depth as a reason anywhere
+        for (BitSet reasons : pastFc) {
+            reasons.clear(depth);
+        }
+    }
+
+    // Fully retracts the variable at 'depth', including the values it rejected
+    private void unassign(int depth) {
+        int var = varAt[depth];
+        undoPruning(depth);
+
+        if (assigned[var] >= 0) {
+            releaseWorkload(var);
+            assigned[var] = -1;
+        }
+        for (int[] entry : rejected.get(depth)) {
+            removedBy[entry[0]][entry[1]] = -1;
+            liveValues[entry[0]]++;
+        }
+        rejected.get(depth).clear();
+
+        conflictSet[var].clear();
+        depthOf[var] = -1;
+    }
+
+    private void recordBest(int depth) {
+        if (depth <= bestDepth) return;
+
+        bestDepth = depth;
+        best = new int[sessions.size()];
+        for (int var = 0; var < sessions.size(); var++) {
+            best[var] = depthOf[var] >= 0 && assigned[var] >= 0 ? domain[var][assigned[var]] : -1;
+        }
+    }
+
+    private void writeBest(Schedule schedule) {
+        if (best == null) return;
+
+        for (int var = 0; var < sessions.size(); var++) {
+            if (best[var] < 0) continue;
+
+            Session session = sessions.get(var);
+            int value = best[var];
+            for (int p = 0; p < session.getDuration(); p++) {
+                schedule.allocate(session.getCourse(), rooms.get(roomOf(value)),
+                                  instructors.get(instructorOf(value)), dayOf(value), periodOf(value) + p);
+            }
+        }
+    }
+
+    private boolean isInterrupted() {
+        return config.getCancellationToken().isCancelled() ||
+               (deadlineNanos != 0 && System.nanoTime() - deadlineNanos >= 0);
+    }
+
+    private static int typeIndex(String type) {
+        for (int i = 0; i < WORKLOAD_TYPES.length; i++) {
+            if (WORKLOAD_TYPES[i].equals(type)) return i;
+        }
+        throw new IllegalArgumentException("Unknown session type: " + type);
+    }
+
+    // Value packing: ((day * PERIODS + period) * rooms + room) * instructors + instructor
+    private int encode(int day, int period, int room, int instructor) {
+        return ((day * InMemoryStore.PERIODS_PER_DAY + period) * rooms.size() + room) * instructors.size() + instructor;
+    }
+
+    private int instructorOf(int value) {
+        return value % instructors.size();
+    }
+
+    private int roomOf(int value) {
+        return (value / instructors.size()) % rooms.size();
+    }
+
+    private int periodOf(int value) {
+        return (value / instructors.size() / rooms.size()) % InMemoryStore.PERIODS_PER_DAY;
+    }
+
+    private int dayOf(int value) {
+        return value / instructors.size() / rooms.size() / InMemoryStore.PERIODS_PER_DAY;
+    }
+}
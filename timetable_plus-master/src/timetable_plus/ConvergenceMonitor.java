@@ -0,0 +1,125 @@
+package timetable_plus;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+// Convergence tracking for one GA population: best and mean fitness and
+// how far the population has spread from its best individual. When the
+// best fitness stops improving for a window of generations the monitor
+// escalates:
+//  1. while the population is still diverse, double the mutation rate
+//  2. once it has converged (or mutation is at its cap), restart part of it
+//  3. after maxRestarts restarts in a row without improvement, give up
+// Any improvement resets the mutation rate and the restart count.
+class ConvergenceMonitor {
+    enum Action {
+        NONE,
+        RAISE_MUTATION,
+        RESTART,
+        GIVE_UP
+    }
+
+    // Below this mean distance from the best, the population has converged
+    static final double DIVERSITY_FLOOR = 0.05;
+    static final double MAX_MUTATION_RATE = 0.5;
+
+    // Individuals compared with the best each generation; evenly spaced, so
+    // measuring does not draw from the GA's random stream
+    private static final int DIVERSITY_SAMPLES = 8;
+
+    private final SolverConfig config;
+    private double bestFitness = Double.NEGATIVE_INFINITY;
+    private double meanFitness;
+    private double worstFitness;
+    private double diversity;
+    private double mutationRate;
+    private int stalledGenerations;
+    private int fruitlessRestarts;
+
+    ConvergenceMonitor(SolverConfig config) {
+        this.config = config;
+        this.mutationRate = config.getMutationRate();
+    }
+
+    // Called once per generation with the freshly scored population
+    Action observe(List<ScheduleGenome> population, double[] fitness) {
+        int best = 0;
+        int worst = 0;
+        double sum = 0;
+        for (int i = 0; i < fitness.length; i++) {
+            sum += fitness[i];
+            if (fitness[i] > fitness[best]) best = i;
+            if (fitness[i] < fitness[worst]) worst = i;
+        }
+        meanFitness = sum / fitness.length;
+        worstFitness = fitness[worst];
+        diversity = measureDiversity(population, best);
+
+        if (fitness[best] > bestFitness) {
+            bestFitness = fitness[best];
+            stalledGenerations = 0;
+            fruitlessRestarts = 0;
+            mutationRate = config.getMutationRate();
+            return Action.NONE;
+        }
+
+        if (config.getRestartWindow() == 0 || ++stalledGenerations < config.getRestartWindow()) {
+            return Action.NONE;
+        }
+        stalledGenerations = 0;
+
+        if (diversity >= DIVERSITY_FLOOR && mutationRate < MAX_MUTATION_RATE) {
+            mutationRate = Math.min(MAX_MUTATION_RATE, Math.max(2 * mutationRate, 0.01));
+            return Action.RAISE_MUTATION;
+        }
+        if (fruitlessRestarts >= config.getMaxRestarts()) {
+            return Action.GIVE_UP;
+        }
+        fruitlessRestarts++;
+        mutationRate = config.getMutationRate();
+        return Action.RESTART;
+    }
+
+    private double measureDiversity(List<ScheduleGenome> population, int best) {
+        int samples = Math.min(DIVERSITY_SAMPLES, population.size() - 1);
+        if (samples <= 0) return 0;
+
+        double total = 0;
+        int step = population.size() / samples;
+        for (int k = 0; k < samples; k++) {
+            int other = (best + 1 + k * step) % population.size();
+            total += population.get(best).distanceTo(population.get(other));
+        }
+        return total / samples;
+    }
+
+    // Checkpoint form of everything observe() carries between generations
+    void writeTo(DataOutput out) throws IOException {
+        out.writeDouble(bestFitness);
+        out.writeDouble(meanFitness);
+        out.writeDouble(worstFitness);
+        out.writeDouble(diversity);
+        out.writeDouble(mutationRate);
+        out.writeInt(stalledGenerations);
+        out.writeInt(fruitlessRestarts);
+    }
+
+    void readFrom(DataInput in) throws IOException {
+        bestFitness = in.readDouble();
+        meanFitness = in.readDouble();
+        worstFitness = in.readDouble();
+        diversity = in.readDouble();
+        mutationRate = in.readDouble();
+        stalledGenerations = in.readInt();
+        fruitlessRestarts = in.readInt();
+    }
+
+    // Mutation rate the next generation should use
+    double getMutationRate() { return mutationRate; }
+    double getBestFitness() { return bestFitness; }
+    double getMeanFitness() { return meanFitness; }
+    double getWorstFitness() { return worstFitness; }
+    double getDiversity() { return diversity; }
+}
@@ -5,6 +5,10 @@ import java.sql.*;
 public class DatabaseManager {
     private static final String DB_URL = "jdbc:sqlite:timetable.db";
     
+    // Version 2 keys schedule slots by room as well as time, so a schedule
+    // can hold parallel classes; version 3 records each schedule's seed
+    private static final int SCHEMA_VERSION = 3;
+    
     public static void initialize() throws SQLException {
         try (Connection conn = DriverManager.getConnection(DB_URL);
              Statement stmt = conn.createStatement()) {
@@ -14,6 +18,9 @@ public class DatabaseManager {
             
             // Create schema version tracking
             createVersionTable(stmt);
+            
+            // Bring databases created by older versions up to date
+            migrateSchema(conn, stmt);
         }
     }
     
@@ -63,10 +70,25 @@ public class DatabaseManager {
             "CREATE TABLE IF NOT EXISTS schedules (" +
             "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
             "name TEXT, " +
-            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)"
+            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+            "seed INTEGER)"
         );
         
         // Schedule slots table
+        createScheduleSlotsTable(stmt);
+        
+        // Users table
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS users (" +
+            "username TEXT PRIMARY KEY, " +
+            "password TEXT, " +
+            "role TEXT, " +
+            "additional_id TEXT, " +
+            "additional_info TEXT)"
+        );
+    }
+    
+    private static void createScheduleSlotsTable(Statement stmt) throws SQLException {
         stmt.execute(
             "CREATE TABLE IF NOT EXISTS schedule_slots (" +
             "schedule_id INTEGER, " +
@@ -75,22 +97,12 @@ public class DatabaseManager {
             "course_code TEXT, " +
             "room_number TEXT, " +
             "instructor_id TEXT, " +
-            "PRIMARY KEY (schedule_id, day, period), " +
+            "PRIMARY KEY (schedule_id, room_number, day, period), " +
             "FOREIGN KEY (schedule_id) REFERENCES schedules(id), " +
             "FOREIGN KEY (course_code) REFERENCES courses(course_code), " +
             "FOREIGN KEY (room_number) REFERENCES classrooms(room_number), " +
             "FOREIGN KEY (instructor_id) REFERENCES instructors(instructor_id))"
         );
-        
-        // Users table
-        stmt.execute(
-            "CREATE TABLE IF NOT EXISTS users (" +
-            "username TEXT PRIMARY KEY, " +
-            "password TEXT, " +
-            "role TEXT, " +
-            "additional_id TEXT, " +
-            "additional_info TEXT)"
-        );
     }
     
     private static void createVersionTable(Statement stmt) throws SQLException {
@@ -101,8 +113,43 @@ public class DatabaseManager {
         // Check if version exists
         ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM schema_version");
         if (rs.next() && rs.getInt(1) == 0) {
-            // Insert initial version
-            stmt.execute("INSERT INTO schema_version VALUES (1)");
+            // New database: createTables has just built the current layout
+            stmt.execute("INSERT INTO schema_version VALUES (" + SCHEMA_VERSION + ")");
+        }
+    }
+    
+    private static void migrateSchema(Connection conn, Statement stmt) throws SQLException {
+        int version;
+        try (ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            version = rs.next() ? rs.getInt(1) : SCHEMA_VERSION;
+        }
+        
+        if (version < 2) {
+            // Version 1 keyed slots by (schedule, day, period): one room per period
+            conn.setAutoCommit(false);
+            try {
+                stmt.execute("ALTER TABLE schedule_slots RENAME TO schedule_slots_v1");
+                createScheduleSlotsTable(stmt);
+                stmt.execute(
+                    "INSERT INTO schedule_slots " +
+                    "SELECT schedule_id, day, period, course_code, room_number, instructor_id " +
+                    "FROM schedule_slots_v1"
+                );
+                stmt.execute("DROP TABLE schedule_slots_v1");
+                stmt.execute("UPDATE schema_version SET version = 2");
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        
+        if (version < 3) {
+            // Seed of the generation run, so a saved timetable can be reproduced
+            stmt.execute("ALTER TABLE schedules ADD COLUMN seed INTEGER");
+            stmt.execute("UPDATE schema_version SET version = 3");
         }
     }
     
@@ -142,9 +189,14 @@ public class DatabaseManager {
             
             // Insert schedule
             try (PreparedStatement ps = conn.prepareStatement(
-                "INSERT INTO schedules (name) VALUES (?)", Statement.RETURN_GENERATED_KEYS)) {
+                "INSERT INTO schedules (name, seed) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS)) {
                 
                 ps.setString(1, schedule.getName());
+                if (schedule.getSeed() != null) {
+                    ps.setLong(2, schedule.getSeed());
+                } else {
+                    ps.setNull(2, Types.INTEGER);
+                }
                 ps.executeUpdate();
                 
                 // Get generated ID
@@ -156,20 +208,16 @@ public class DatabaseManager {
                     try (PreparedStatement slotPs = conn.prepareStatement(
                         "INSERT INTO schedule_slots VALUES (?, ?, ?, ?, ?, ?)")) {
                         
-                        for (int day = 0; day < InMemoryStore.WORKING_DAYS; day++) {
-                            for (int period = 0; period < InMemoryStore.PERIODS_PER_DAY; period++) {
-                                ScheduleSlot slot = schedule.getSlot(day, period);
+                        for (ScheduleSlot slot : schedule.getSlots()) {
+                            if (slot.getCourse() != null) {
+                                slotPs.setInt(1, scheduleId);
+                                slotPs.setInt(2, slot.getDay());
+                                slotPs.setInt(3, slot.getPeriod());
+                                slotPs.setString(4, slot.getCourse().getCourseCode());
+                                slotPs.setString(5, slot.getRoomNumber());
+                                slotPs.setString(6, slot.getInstructorId());
                                 
-                                if (slot != null && slot.getCourse() != null) {
-                                    slotPs.setInt(1, scheduleId);
-                                    slotPs.setInt(2, day);
-                                    slotPs.setInt(3, period);
-                                    slotPs.setString(4, slot.getCourse().getCourseCode());
-                                    slotPs.setString(5, slot.getRoomNumber());
-                                    slotPs.setString(6, slot.getInstructorId());
-                                    
-                                    slotPs.addBatch();
-                                }
+                                slotPs.addBatch();
                             }
                         }
                         
@@ -236,6 +284,8 @@ public class DatabaseManager {
                     String name = rs.getString("name");
                     
                     Schedule schedule = new Schedule(name);
+                    long seed = rs.getLong("seed");
+                    schedule.setSeed(rs.wasNull() ? null : seed);
                     
                     // Load slots for this schedule
                     try (PreparedStatement ps = conn.prepareStatement(
@@ -254,7 +304,7 @@ public class DatabaseManager {
                             Course course = InMemoryStore.getInstance().getCourse(courseCode);
                             if (course != null) {
                                 ScheduleSlot slot = new ScheduleSlot(course, roomNumber, instructorId);
-                                schedule.setSlot(day, period, slot);
+                                schedule.addSlot(slot, day, period);
                             }
                         }
                     }
@@ -109,18 +109,11 @@ public class DragDropManager implements DragGestureListener, DropTargetListener
     }
     
     private Course getCourseAtPoint(Point point) {
-        // Convert point to day/period
-        int day = point.y / 50; // Adjust based on cell size
-        int period = point.x / 50;
-        
-        if (day >= 0 && day < InMemoryStore.WORKING_DAYS &&
-            period >= 0 && period < InMemoryStore.PERIODS_PER_DAY) {
-            return schedule.getSlot(day, period).getCourse();
-        }
-        
-        return null;
+        ScheduleSlot slot = getSlotAtPoint(point);
+        return slot == null ? null : slot.getCourse();
     }
     
+    // The first class (in room order) running at the point's day and period
     private ScheduleSlot getSlotAtPoint(Point point) {
         // Convert point to day/period
         int day = point.y / 50; // Adjust based on cell size
@@ -128,7 +121,8 @@ public class DragDropManager implements DragGestureListener, DropTargetListener
         
         if (day >= 0 && day < InMemoryStore.WORKING_DAYS &&
             period >= 0 && period < InMemoryStore.PERIODS_PER_DAY) {
-            return schedule.getSlot(day, period);
+            java.util.List<ScheduleSlot> running = schedule.getSlots(day, period);
+            return running.isEmpty() ? null : running.get(0);
         }
         
         return null;
@@ -0,0 +1,271 @@
+package timetable_plus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Pre-flight analysis run before any search: counting and matching bounds
+// that every complete timetable has to satisfy, each failure reported
+// against the courses involved. It takes milliseconds, so an impossible
+// term is caught before a full optimizer run. Passing the check does not
+// prove that a timetable exists.
+//
+//  - rooms: for every capacity threshold, the sessions that need at least
+//    that many seats fit into the periods outside lunch (and their lab
+//    blocks into the lab blocks) of the rooms that are that large, labs
+//    for every session of a course with labs and ordinary rooms otherwise
+//  - lecture spacing: a course cannot have more lectures than there are
+//    days at least LECTURE_GAP_DAYS + 1 apart
+//  - instructor quotas: every course gets an instructor for each session
+//    type without anyone taking more courses of that type than allowed (a
+//    bipartite matching), and no instructor is the only choice for more
+//    hours than a week has
+public class FeasibilityCheck {
+    private static final String[] SESSION_TYPES = {Session.LAB, Session.LECTURE, Session.TUTORIAL};
+
+    // One failed bound, against one course
+    public static class Issue {
+        private final Course course;
+        private final String sessionType;
+        private final String reason;
+
+        public Issue(Course course, String sessionType, String reason) {
+            this.course = course;
+            this.sessionType = sessionType;
+            this.reason = reason;
+        }
+
+        public Course getCourse() { return course; }
+        public String getSessionType() { return sessionType; }
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return course.getCourseCode() + " " + sessionType + "s: " + reason;
+        }
+    }
+
+    private final InMemoryStore store;
+    private final List<Issue> issues = new ArrayList<>();
+
+    public FeasibilityCheck(InMemoryStore store) {
+        this.store = store;
+    }
+
+    public List<Issue> run() {
+        issues.clear();
+        List<Session> sessions = Session.requiredFor(store.getAllCourses().values());
+
+        checkRooms(sessions, true);
+        checkRooms(sessions, false);
+        checkLectureSpacing();
+        for (String type : SESSION_TYPES) {
+            checkInstructorQuota(sessions, type);
+        }
+        checkInstructorHours(sessions);
+
+        return getIssues();
+    }
+
+    public boolean isFeasible() {
+        return issues.isEmpty();
+    }
+
+    public List<Issue> getIssues() {
+        return Collections.unmodifiableList(issues);
+    }
+
+    public Set<Course> getUnplaceableCourses() {
+        Set<Course> courses = new LinkedHashSet<>();
+        for (Issue issue : issues) {
+            courses.add(issue.getCourse());
+        }
+        return courses;
+    }
+
+    // Rooms follow Classroom.canHostCourse: a course with labs meets in a lab
+    // for every session, any other course in an ordinary room. Room kinds
+    // are nested by capacity (a room that seats n seats anything smaller),
+    // so checking every threshold is enough for the room bound. Thresholds
+    // go from the largest course down; a threshold is reported when its
+    // shortfall (in periods, a missing lab block counting as LAB_DURATION)
+    // is larger than any reported above it, naming the courses it adds.
+    private void checkRooms(List<Session> sessions, boolean labs) {
+        List<Session> demand = new ArrayList<>();
+        for (Session session : sessions) {
+            if ((session.getCourse().getLabHours() > 0) == labs) {
+                demand.add(session);
+            }
+        }
+        demand.sort((a, b) -> b.getCourse().getEnrolledStudents() - a.getCourse().getEnrolledStudents());
+
+        int periodsPerRoom = teachingPeriodsPerWeek();
+        int blocksPerRoom = labBlocksPerWeek();
+        int periods = 0;
+        int blocks = 0;
+        int reportedShortfall = 0;
+        int reportedUpTo = 0;
+
+        for (int i = 0; i < demand.size(); ) {
+            int seats = demand.get(i).getCourse().getEnrolledStudents();
+            while (i < demand.size() && demand.get(i).getCourse().getEnrolledStudents() == seats) {
+                periods += demand.get(i).getDuration();
+                if (demand.get(i).isLab()) blocks++;
+                i++;
+            }
+
+            int rooms = store.countCandidateRooms(labs, seats);
+            int blockShortfall = (blocks - rooms * blocksPerRoom) * BITSConstraints.LAB_DURATION;
+            int shortfall = Math.max(periods - rooms * periodsPerRoom, blockShortfall);
+            if (shortfall <= reportedShortfall) continue;
+
+            Set<Course> courses = new LinkedHashSet<>();
+            for (int j = reportedUpTo; j < i; j++) {
+                courses.add(demand.get(j).getCourse());
+            }
+            String kind = labs ? "labs" : "rooms";
+            for (Course course : courses) {
+                String reason;
+                if (rooms == 0) {
+                    reason = labs ?
+                        "no lab seats " + course.getEnrolledStudents() + " students, and a course with labs " +
+                        "meets in a lab for all of its sessions" :
+                        "no lecture room seats " + course.getEnrolledStudents() + " students";
+                } else if (shortfall == blockShortfall) {
+                    reason = blocks + " lab blocks need labs seating " + seats + " or more, but those " + rooms +
+                        " labs offer only " + rooms * blocksPerRoom + " lab blocks a week";
+                } else {
+                    reason = periods + " periods of sessions need " + kind + " seating " + seats +
+                        " or more, but those " + rooms + " " + kind + " offer only " +
+                        rooms * periodsPerRoom + " periods a week";
+                }
+                issues.add(new Issue(course, labs ? "session" : Session.LECTURE, reason));
+            }
+            reportedShortfall = shortfall;
+            reportedUpTo = i;
+        }
+    }
+
+    private void checkLectureSpacing() {
+        int maxLectures = (InMemoryStore.WORKING_DAYS - 1) / (BITSConstraints.LECTURE_GAP_DAYS + 1) + 1;
+
+        for (Course course : store.getAllCourses().values()) {
+            if (course.getLectureHours() > maxLectures) {
+                issues.add(new Issue(course, Session.LECTURE, course.getLectureHours() +
+                    " lectures a week, but lectures need separate days " +
+                    (BITSConstraints.LECTURE_GAP_DAYS + 1) + " apart, which allows at most " + maxLectures));
+            }
+        }
+    }
+
+    // Courses are matched to instructors one by one with augmenting paths, an
+    // instructor holding up to what is left of the type's quota once the
+    // store's counts are taken off; a course that cannot be matched even
+    // after moving earlier ones around is reported
+    private void checkInstructorQuota(List<Session> sessions, String type) {
+        int quota = BITSConstraints.maxCoursesPerFaculty(type);
+        Set<Course> courses = new LinkedHashSet<>();
+        for (Session session : sessions) {
+            if (session.getType().equals(type)) {
+                courses.add(session.getCourse());
+            }
+        }
+
+        Map<String, List<Course>> taken = new HashMap<>();
+        for (Course course : courses) {
+            List<String> candidates = instructorsOf(course);
+            if (candidates.isEmpty()) {
+                issues.add(new Issue(course, type, "none of its instructors is in the store"));
+            } else if (!assign(course, type, taken, new HashSet<>())) {
+                issues.add(new Issue(course, type, "its instructors " + candidates +
+                    " are all needed elsewhere; each may take " + type + "s for at most " + quota +
+                    " course" + (quota == 1 ? "" : "s") + ", counting those already assigned"));
+            }
+        }
+    }
+
+    private boolean assign(Course course, String type, Map<String, List<Course>> taken, Set<String> visited) {
+        for (String instructorId : instructorsOf(course)) {
+            if (!visited.add(instructorId)) continue;
+
+            List<Course> load = taken.computeIfAbsent(instructorId, id -> new ArrayList<>());
+            if (load.size() < BITSConstraints.remainingCourses(instructorId, type, store)) {
+                load.add(course);
+                return true;
+            }
+            for (int i = 0; i < load.size(); i++) {
+                // Move an earlier course to another of its instructors
+                if (assign(load.get(i), type, taken, visited)) {
+                    load.set(i, course);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void checkInstructorHours(List<Session> sessions) {
+        Map<String, Integer> hours = new HashMap<>();
+        Map<String, Set<Course>> courses = new HashMap<>();
+
+        for (Session session : sessions) {
+            List<String> candidates = instructorsOf(session.getCourse());
+            if (candidates.size() != 1) continue;
+
+            String instructorId = candidates.get(0);
+            hours.merge(instructorId, session.getDuration(), Integer::sum);
+            courses.computeIfAbsent(instructorId, id -> new LinkedHashSet<>()).add(session.getCourse());
+        }
+
+        int available = teachingPeriodsPerWeek();
+        for (Map.Entry<String, Integer> entry : hours.entrySet()) {
+            if (entry.getValue() <= available) continue;
+
+            for (Course course : courses.get(entry.getKey())) {
+                issues.add(new Issue(course, "session", "its only instructor " + entry.getKey() +
+                    " would teach " + entry.getValue() + " periods, more than the " + available + " in a week"));
+            }
+        }
+    }
+
+    private List<String> instructorsOf(Course course) {
+        List<String> instructors = new ArrayList<>();
+        for (String instructorId : course.getInstructors()) {
+            if (store.getInstructor(instructorId) != null) {
+                instructors.add(instructorId);
+            }
+        }
+        return instructors;
+    }
+
+    static int teachingPeriodsPerWeek() {
+        int periods = 0;
+        for (int p = 0; p < InMemoryStore.PERIODS_PER_DAY; p++) {
+            if (BITSConstraints.isValidLunchBreak(p)) {
+                periods++;
+            }
+        }
+        return periods * InMemoryStore.WORKING_DAYS;
+    }
+
+    // Disjoint lab blocks per room: each run of periods between lunch and the
+    // ends of the day holds run / LAB_DURATION of them
+    static int labBlocksPerWeek() {
+        int blocks = 0;
+        int run = 0;
+        for (int p = 0; p <= InMemoryStore.PERIODS_PER_DAY; p++) {
+            if (p < InMemoryStore.PERIODS_PER_DAY && BITSConstraints.isValidLunchBreak(p)) {
+                run++;
+            } else {
+                blocks += run / BITSConstraints.LAB_DURATION;
+                run = 0;
+            }
+        }
+        return blocks * InMemoryStore.WORKING_DAYS;
+    }
+}
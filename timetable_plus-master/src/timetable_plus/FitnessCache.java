@@ -0,0 +1,45 @@
+package timetable_plus;
+
+// Bounded transposition table of fitness values, keyed by the genome's
+// Zobrist hash. Direct mapped: each hash has one slot, and a newer entry
+// simply replaces whatever was there, so lookups and stores are O(1) and
+// the memory never grows. Not thread-safe; each population owns its own.
+class FitnessCache {
+    private final long[] hashes;
+    private final double[] values;
+    private final boolean[] filled;
+    private final int mask;
+
+    // At least 'entries' slots (a power of two)
+    FitnessCache(int entries) {
+        int capacity = Integer.highestOneBit(Math.max(1, entries - 1)) << 1;
+        this.hashes = new long[capacity];
+        this.values = new double[capacity];
+        this.filled = new boolean[capacity];
+        this.mask = capacity - 1;
+    }
+
+    // Fills in the fitness of 'genome' if it is cached; true on a hit
+    boolean lookup(ScheduleGenome genome) {
+        long hash = genome.getHash();
+        int slot = slotOf(hash);
+        if (!filled[slot] || hashes[slot] != hash) {
+            return false;
+        }
+        genome.setFitness(values[slot]);
+        return true;
+    }
+
+    void store(ScheduleGenome genome) {
+        long hash = genome.getHash();
+        int slot = slotOf(hash);
+        hashes[slot] = hash;
+        values[slot] = genome.getFitness();
+        filled[slot] = true;
+    }
+
+    // The low bits of a Zobrist hash are as good as any
+    private int slotOf(long hash) {
+        return (int) hash & mask;
+    }
+}
@@ -0,0 +1,240 @@
+package timetable_plus;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// State of a GA run between two generations, enough to carry on exactly as
+// if it had never stopped. The file is gzipped binary:
+//  - header: magic, version, GenomeCodec fingerprint, seed, schedule name
+//  - run: next generation, best fitness so far, stagnant generations,
+//    evaluations and restarts so far
+//  - populations (one, or one per island), each with its random stream,
+//    ConvergenceMonitor state, generations done, exhausted flag and its
+//    genomes, stored as their occupied cells only
+// Fitness is not stored: it is a pure function of the genome and is
+// recomputed when the run resumes.
+class GenerationCheckpoint {
+    private static final int MAGIC = 0x54544743; // "TTGC"
+    private static final int VERSION = 1;
+
+    // One evolving population and its random stream
+    static class Population {
+        private final ResumableRandom random;
+        private final ConvergenceMonitor monitor;
+        private final List<ScheduleGenome> genomes;
+        private final int generationsDone;
+        private final boolean exhausted;
+
+        Population(ResumableRandom random, ConvergenceMonitor monitor, List<ScheduleGenome> genomes,
+                   int generationsDone, boolean exhausted) {
+            this.random = random;
+            this.monitor = monitor;
+            this.genomes = genomes;
+            this.generationsDone = generationsDone;
+            this.exhausted = exhausted;
+        }
+
+        ResumableRandom getRandom() { return random; }
+        ConvergenceMonitor getMonitor() { return monitor; }
+        List<ScheduleGenome> getGenomes() { return genomes; }
+        int getGenerationsDone() { return generationsDone; }
+        boolean isExhausted() { return exhausted; }
+    }
+
+    private final long seed;
+    private final String scheduleName;
+    private final int generation;
+    private final double bestSoFar;
+    private final int stagnantGenerations;
+    private final long evaluations;
+    private final int restarts;
+    private final List<Population> populations;
+
+    GenerationCheckpoint(long seed, String scheduleName, int generation, double bestSoFar,
+                         int stagnantGenerations, long evaluations, int restarts, List<Population> populations) {
+        this.seed = seed;
+        this.scheduleName = scheduleName;
+        this.generation = generation;
+        this.bestSoFar = bestSoFar;
+        this.stagnantGenerations = stagnantGenerations;
+        this.evaluations = evaluations;
+        this.restarts = restarts;
+        this.populations = populations;
+    }
+
+    // Writes to a temporary file next to 'file' and then replaces it, so a
+    // crash while writing leaves the previous checkpoint intact
+    void write(File file, GenomeCodec codec) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        File temp = File.createTempFile(file.getName(), ".tmp", directory);
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(new FileOutputStream(temp))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(codec.fingerprint());
+                out.writeLong(seed);
+                out.writeUTF(scheduleName);
+
+                out.writeInt(generation);
+                out.writeDouble(bestSoFar);
+                out.writeInt(stagnantGenerations);
+                out.writeLong(evaluations);
+                out.writeInt(restarts);
+
+                out.writeInt(populations.size());
+                for (Population population : populations) {
+                    writePopulation(out, population);
+                }
+            }
+
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                           StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    private static void writePopulation(DataOutputStream out, Population population) throws IOException {
+        ResumableRandom random = population.getRandom();
+        out.writeLong(random.getState());
+        out.writeBoolean(random.hasCachedGaussian());
+        out.writeDouble(random.getCachedGaussian());
+
+        population.getMonitor().writeTo(out);
+        out.writeInt(population.getGenerationsDone());
+        out.writeBoolean(population.isExhausted());
+
+        out.writeInt(population.getGenomes().size());
+        for (ScheduleGenome genome : population.getGenomes()) {
+            writeGenome(out, genome);
+        }
+    }
+
+    private static void writeGenome(DataOutputStream out, ScheduleGenome genome) throws IOException {
+        int occupied = 0;
+        for (int cell = 0; cell < genome.getCellCount(); cell++) {
+            if (!genome.isEmpty(cell)) occupied++;
+        }
+
+        out.writeInt(occupied);
+        for (int cell = 0; cell < genome.getCellCount(); cell++) {
+            if (genome.isEmpty(cell)) continue;
+
+            // The lock flag rides in the top bit of the course id, as in the genome
+            out.writeInt(cell);
+            out.writeInt(genome.getCourse(cell) | (genome.isLocked(cell) ? ScheduleGenome.LOCKED : 0));
+            out.writeInt(genome.getInstructor(cell));
+        }
+    }
+
+    // Genomes are rebuilt with 'codec', which must be built from the same
+    // store data as the one that wrote the checkpoint; 'config' must give
+    // the same population size and island count
+    static GenerationCheckpoint read(File file, GenomeCodec codec, SolverConfig config) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a timetable checkpoint");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version + " in " + file);
+            }
+            if (in.readLong() != codec.fingerprint()) {
+                throw new IllegalArgumentException("Checkpoint " + file +
+                                                   " was written for different courses, rooms or instructors");
+            }
+            long seed = in.readLong();
+            String scheduleName = in.readUTF();
+
+            int generation = in.readInt();
+            double bestSoFar = in.readDouble();
+            int stagnantGenerations = in.readInt();
+            long evaluations = in.readLong();
+            int restarts = in.readInt();
+
+            int count = in.readInt();
+            if (count != Math.max(1, config.getIslandCount())) {
+                throw new IllegalArgumentException("Checkpoint has " + count +
+                                                   " populations but the config asks for " +
+                                                   config.getIslandCount() + " islands");
+            }
+            List<Population> populations = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                populations.add(readPopulation(in, codec, config));
+            }
+
+            return new GenerationCheckpoint(seed, scheduleName, generation, bestSoFar, stagnantGenerations,
+                                            evaluations, restarts, populations);
+        }
+    }
+
+    private static Population readPopulation(DataInputStream in, GenomeCodec codec, SolverConfig config)
+            throws IOException {
+        ResumableRandom random = new ResumableRandom(0);
+        random.restore(in.readLong(), in.readBoolean(), in.readDouble());
+
+        ConvergenceMonitor monitor = new ConvergenceMonitor(config);
+        monitor.readFrom(in);
+        int generationsDone = in.readInt();
+        boolean exhausted = in.readBoolean();
+
+        int size = in.readInt();
+        if (size != config.getPopulationSize()) {
+            throw new IllegalArgumentException("Checkpoint population has " + size +
+                                               " individuals but the config asks for " +
+                                               config.getPopulationSize());
+        }
+        List<ScheduleGenome> genomes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            genomes.add(readGenome(in, codec));
+        }
+
+        return new Population(random, monitor, genomes, generationsDone, exhausted);
+    }
+
+    private static ScheduleGenome readGenome(DataInputStream in, GenomeCodec codec) throws IOException {
+        ScheduleGenome genome = codec.newGenome();
+
+        int occupied = in.readInt();
+        for (int i = 0; i < occupied; i++) {
+            int cell = in.readInt();
+            int course = in.readInt();
+            int instructor = in.readInt();
+            if (cell < 0 || cell >= genome.getCellCount()) {
+                throw new IOException("Corrupt checkpoint: cell " + cell + " out of range");
+            }
+            genome.set(cell, course & ScheduleGenome.ID_MASK, instructor, (course & ScheduleGenome.LOCKED) != 0);
+        }
+
+        return genome;
+    }
+
+    long getSeed() { return seed; }
+    String getScheduleName() { return scheduleName; }
+    int getGeneration() { return generation; }
+    double getBestSoFar() { return bestSoFar; }
+    int getStagnantGenerations() { return stagnantGenerations; }
+    long getEvaluations() { return evaluations; }
+    int getRestarts() { return restarts; }
+    List<Population> getPopulations() { return populations; }
+}
@@ -0,0 +1,112 @@
+package timetable_plus;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+// Telemetry bookkeeping for one GA population: phase times accumulated
+// since the last record, and when the next record is due. Without a sink
+// now() returns 0 and nothing is timed, so an untraced run pays nothing
+// but a branch per phase. Not thread-safe: each population has its own.
+// Allocation is counted per thread, so a population that moves between
+// threads (an island) brackets each stint with resume() and pause(). Only
+// the thread driving the population is counted: with parallelism > 1 the
+// scoring done on the ForkJoin workers is missing from allocatedBytes,
+// which then covers breeding and bookkeeping alone.
+class GenerationTelemetry {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final TelemetrySink sink;
+    private final long intervalNanos;
+    private final int island;
+
+    private long selectionNanos;
+    private long crossoverNanos;
+    private long mutationNanos;
+    private long evaluationNanos;
+
+    private long lastNanos;
+    private long evaluations;     // individuals scored since the last record
+    private long allocated;       // since the last record, by finished stints
+    private long stintAllocated;  // the current thread's count when its stint began
+
+    GenerationTelemetry(SolverConfig config, int island) {
+        this.sink = config.getTelemetrySink();
+        this.intervalNanos = config.getTelemetryIntervalMillis() * 1_000_000L;
+        this.island = island;
+    }
+
+    boolean isEnabled() {
+        return sink != null;
+    }
+
+    // Starts the first interval and a stint on the current thread
+    void start() {
+        if (!isEnabled()) return;
+        lastNanos = System.nanoTime();
+        evaluations = 0;
+        allocated = 0;
+        resume();
+    }
+
+    void resume() {
+        if (isEnabled()) stintAllocated = allocatedBytes();
+    }
+
+    void pause() {
+        if (isEnabled()) allocated += allocatedBytes() - stintAllocated;
+    }
+
+    long now() {
+        return isEnabled() ? System.nanoTime() : 0;
+    }
+
+    void addBreeding(long selection, long crossover, long mutation) {
+        selectionNanos += selection;
+        crossoverNanos += crossover;
+        mutationNanos += mutation;
+    }
+
+    void addEvaluation(long nanos, int scored) {
+        evaluationNanos += nanos;
+        evaluations += scored;
+    }
+
+    // The record covering everything since the previous one, or null if
+    // the interval has not passed yet (or telemetry is off)
+    TelemetryRecord poll(int generation, ConvergenceMonitor monitor, long elapsedMillis) {
+        if (!isEnabled()) return null;
+
+        long now = System.nanoTime();
+        if (intervalNanos > 0 && now - lastNanos < intervalNanos) return null;
+
+        long threadAllocated = allocatedBytes();
+        double seconds = (now - lastNanos) / 1e9;
+        TelemetryRecord record = new TelemetryRecord(generation, island, elapsedMillis,
+            monitor.getBestFitness(), monitor.getMeanFitness(), monitor.getWorstFitness(), monitor.getDiversity(),
+            seconds > 0 ? evaluations / seconds : 0,
+            threadAllocated >= 0 ? allocated + threadAllocated - stintAllocated : -1,
+            selectionNanos, crossoverNanos, mutationNanos, evaluationNanos);
+
+        selectionNanos = crossoverNanos = mutationNanos = evaluationNanos = 0;
+        lastNanos = now;
+        evaluations = 0;
+        allocated = 0;
+        stintAllocated = threadAllocated;
+        return record;
+    }
+
+    void emit(TelemetryRecord record) {
+        if (record != null) sink.record(record);
+    }
+
+    // Bytes the current thread has allocated so far, -1 if the JVM cannot tell
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,159 @@
+package timetable_plus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Dense ids for the courses, rooms and instructors an optimizer run works
+// with, and conversion between Schedule and ScheduleGenome (room ids are the
+// genome's room rows). Built once per run and read-only afterwards, so
+// worker threads can share it.
+class GenomeCodec {
+    private final InMemoryStore store;
+    private final List<Course> courses = new ArrayList<>();
+    private final List<String> rooms = new ArrayList<>();
+    private final List<String> instructors = new ArrayList<>();
+    private final Map<String, Integer> courseIds = new HashMap<>();
+    private final Map<String, Integer> roomIds = new HashMap<>();
+    private final Map<String, Integer> instructorIds = new HashMap<>();
+    private int[] courseDemand;
+    private boolean[] unsuitableRoom;
+
+    // Every course in the store is required; anything else the schedule
+    // refers to gets an id too, with no required hours
+    GenomeCodec(InMemoryStore store, Schedule schedule) {
+        this.store = store;
+        for (Course course : store.getAllCourses().values()) {
+            internCourse(course);
+        }
+        int requiredCourses = courses.size();
+
+        for (Classroom room : store.getAllClassrooms().values()) {
+            intern(room.getRoomNumber(), rooms, roomIds);
+        }
+        for (Instructor instructor : store.getAllInstructors().values()) {
+            intern(instructor.getInstructorId(), instructors, instructorIds);
+        }
+
+        for (ScheduleSlot slot : schedule.getSlots()) {
+            if (slot.getCourse() != null) {
+                internCourse(slot.getCourse());
+            }
+            intern(slot.getRoomNumber(), rooms, roomIds);
+            intern(slot.getInstructorId(), instructors, instructorIds);
+        }
+
+        courseDemand = new int[courses.size()];
+        for (int i = 0; i < requiredCourses; i++) {
+            courseDemand[i] = ConflictCounters.requiredHours(courses.get(i));
+        }
+
+        // Rooms the store does not know about are given the benefit of the doubt
+        unsuitableRoom = new boolean[courses.size() * rooms.size()];
+        for (int course = 0; course < courses.size(); course++) {
+            for (int room = 0; room < rooms.size(); room++) {
+                Classroom classroom = store.getClassroom(rooms.get(room));
+                unsuitableRoom[course * rooms.size() + room] =
+                    classroom != null && !classroom.canHostCourse(courses.get(course));
+            }
+        }
+    }
+
+    private void internCourse(Course course) {
+        if (!courseIds.containsKey(course.getCourseCode())) {
+            courseIds.put(course.getCourseCode(), courses.size());
+            courses.add(course);
+        }
+    }
+
+    private static void intern(String key, List<String> values, Map<String, Integer> ids) {
+        if (key != null && !ids.containsKey(key)) {
+            ids.put(key, values.size());
+            values.add(key);
+        }
+    }
+
+    private static int idOf(String key, Map<String, Integer> ids) {
+        return key == null ? -1 : ids.get(key);
+    }
+
+    // Hash of the id tables, required hours and room suitability: a genome saved under one
+    // codec only means the same timetable under a codec with the same value
+    long fingerprint() {
+        long hash = 0xcbf29ce484222325L; // FNV-1a
+        for (Course course : courses) {
+            hash = mix(hash, course.getCourseCode());
+        }
+        for (String room : rooms) {
+            hash = mix(hash, room);
+        }
+        for (String instructor : instructors) {
+            hash = mix(hash, instructor);
+        }
+        for (int demand : courseDemand) {
+            hash = (hash ^ demand) * 0x100000001b3L;
+        }
+        for (boolean unsuitable : unsuitableRoom) {
+            hash = (hash ^ (unsuitable ? 1 : 0)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return (hash ^ 0xff) * 0x100000001b3L; // separator, so "ab","c" differs from "a","bc"
+    }
+
+    // Preferences of instructors the store does not know about count as none
+    SoftConstraints newSoftConstraints(SolverConfig config) {
+        int[] preferredPeriods = new int[instructors.size()];
+        for (int i = 0; i < instructors.size(); i++) {
+            Instructor instructor = store.getInstructor(instructors.get(i));
+            preferredPeriods[i] = instructor != null ? instructor.getPreferredPeriodMask() : 0;
+        }
+        return new SoftConstraints(config, preferredPeriods, courses.size());
+    }
+    
+    ConflictCounters newCounters() {
+        return new ConflictCounters(courseDemand, unsuitableRoom, rooms.size(), instructors.size());
+    }
+
+    // An empty timetable over this codec's rooms
+    ScheduleGenome newGenome() {
+        return new ScheduleGenome(rooms.size(), newCounters());
+    }
+
+    // Sessions without a room cannot be placed in the grid and are left out
+    ScheduleGenome encode(Schedule schedule) {
+        ScheduleGenome genome = newGenome();
+
+        for (ScheduleSlot slot : schedule.getSlots()) {
+            if (slot.getCourse() == null || slot.getRoomNumber() == null) continue;
+
+            int cell = ScheduleGenome.cellOf(roomIds.get(slot.getRoomNumber()), slot.getDay(), slot.getPeriod());
+            genome.set(cell, courseIds.get(slot.getCourse().getCourseCode()),
+                       idOf(slot.getInstructorId(), instructorIds), slot.isLocked());
+        }
+
+        return genome;
+    }
+
+    // Replaces every session that holds a room with the genome's sessions
+    void decode(ScheduleGenome genome, Schedule target) {
+        target.clearRooms();
+
+        for (int cell = 0; cell < genome.getCellCount(); cell++) {
+            if (genome.isEmpty(cell)) continue;
+
+            int instructor = genome.getInstructor(cell);
+            ScheduleSlot slot = target.allocate(courses.get(genome.getCourse(cell)),
+                                                rooms.get(ScheduleGenome.roomOf(cell)),
+                                                instructor < 0 ? null : instructors.get(instructor),
+                                                ScheduleGenome.dayOf(cell), ScheduleGenome.periodOf(cell));
+            slot.setLocked(genome.isLocked(cell));
+        }
+    }
+}
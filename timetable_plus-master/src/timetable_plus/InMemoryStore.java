@@ -2,10 +2,12 @@ package timetable_plus;
 
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +21,8 @@ public class InMemoryStore implements Serializable {
     private Map<String, Course> courses;
     private Map<String, Instructor> instructors;
     private Map<String, Classroom> classrooms;
+    // Classrooms by kind and capacity; rebuilt rather than serialized
+    private transient RoomIndex roomIndex;
     private List<Schedule> schedules;
     private Map<String, User> users;
     private Schedule currentSchedule;
@@ -26,10 +30,12 @@ public class InMemoryStore implements Serializable {
     // Singleton pattern
     private static InMemoryStore instance;
     
-    private InMemoryStore() {
+    // Everything but snapshots and benchmark fixtures uses getInstance()
+    InMemoryStore() {
         courses = new HashMap<>();
         instructors = new HashMap<>();
         classrooms = new HashMap<>();
+        roomIndex = new RoomIndex();
         schedules = new ArrayList<>();
         users = new HashMap<>();
     }
@@ -50,8 +56,13 @@ public class InMemoryStore implements Serializable {
         instructors.put(instructor.getInstructorId(), instructor);
     }
     
+    // Replaces any room with the same number, in the room index too
     public void addClassroom(Classroom classroom) {
-        classrooms.put(classroom.getRoomNumber(), classroom);
+        Classroom previous = classrooms.put(classroom.getRoomNumber(), classroom);
+        if (previous != null) {
+            roomIndex.remove(previous);
+        }
+        roomIndex.add(classroom);
     }
     
     public void addSchedule(Schedule schedule) {
@@ -87,8 +98,19 @@ public class InMemoryStore implements Serializable {
         return instructors;
     }
     
+    // Read-only: rooms are added through addClassroom so the index stays current
     public Map<String, Classroom> getAllClassrooms() {
-        return classrooms;
+        return Collections.unmodifiableMap(classrooms);
+    }
+    
+    // Labs (or ordinary rooms) that seat at least minCapacity
+    public int countCandidateRooms(boolean labs, int minCapacity) {
+        return roomIndex.countAtLeast(labs, minCapacity);
+    }
+    
+    // Rooms that can host the course (Classroom.canHostCourse), smallest first
+    public List<Classroom> getCandidateRooms(Course course) {
+        return roomIndex.atLeast(course.getLabHours() > 0, course.getEnrolledStudents());
     }
     
     public List<Schedule> getAllSchedules() {
@@ -164,6 +186,20 @@ public class InMemoryStore implements Serializable {
         return getCurrentSchedule();
     }
     
+    // Detached copy of the timetabling data (courses, instructors and
+    // classrooms) for solvers running in the background, so edits made
+    // meanwhile cannot change the data under them. The entity objects
+    // themselves are shared; the solvers only read them.
+    public InMemoryStore snapshot() {
+        InMemoryStore copy = new InMemoryStore();
+        copy.courses.putAll(courses);
+        copy.instructors.putAll(instructors);
+        for (Classroom classroom : classrooms.values()) {
+            copy.addClassroom(classroom);
+        }
+        return copy;
+    }
+    
     // Serialization
     public void saveToFile(String filename) {
         try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
@@ -173,6 +209,14 @@ public class InMemoryStore implements Serializable {
         }
     }
     
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        roomIndex = new RoomIndex();
+        for (Classroom classroom : classrooms.values()) {
+            roomIndex.add(classroom);
+        }
+    }
+    
     public static void loadFromFile(String filename) {
         try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filename))) {
             instance = (InMemoryStore) ois.readObject();
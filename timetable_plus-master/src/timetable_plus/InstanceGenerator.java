@@ -0,0 +1,271 @@
+package timetable_plus;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Builds synthetic campuses for scaling and load tests. The same settings
+// and seed always give the same courses, instructors and rooms, and
+// CSVHandler.exportAll / importAll carry them between benchmarks and tools.
+//
+//  - every course has a lecturer dealt to it in turn, and belongs to that
+//    lecturer's department; up to two more instructors (mostly none) come
+//    from the same department
+//  - enrollment is log-normal around the median, clipped to the largest
+//    room of the right kind, so most courses are small and a few are huge
+//  - a share of the courses have a lab; lectures are two or three a week,
+//    tutorials none or one
+//  - lecture rooms ("F...") follow the enrollment distribution, with a few
+//    large halls; labs ("D...") seat 40, 80 or 120
+// By default there are just enough instructors for each to lecture
+// MAX_LECTURES_PER_FACULTY courses (and so teach that course's tutorials
+// and lab within their quotas too), and labs are added until every lab
+// course fits with LAB_LOAD of each lab's week in use; such instances
+// pass FeasibilityCheck. Explicit instructor and lab counts are used as
+// given, and then nothing guarantees that a complete timetable exists;
+// FeasibilityCheck tells how far off the instance is.
+public class InstanceGenerator {
+    private static final String[] DEPARTMENTS = {"CS", "EEE", "MECH", "CHEM", "BIO", "MATH", "PHY", "ECON"};
+    private static final int[] LAB_CAPACITIES = {40, 80, 120};
+    private static final int HALL_CAPACITY = 350;
+    private static final double ENROLLMENT_SPREAD = 0.6; // sigma of log(enrollment)
+    private static final double LAB_LOAD = 0.75; // share of a sized lab's week its courses fill
+    private static final int SIZED = -1; // count worked out from the courses
+
+    private final long seed;
+    private int courses = 2000;
+    private int instructors = SIZED;
+    private int lectureRooms = 250;
+    private int labRooms = SIZED;
+    private double labFraction = 0.3;
+    private int medianEnrollment = 60;
+
+    public InstanceGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    // Builder pattern methods
+    public InstanceGenerator withCourses(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Course count must be at least 1");
+        }
+        this.courses = count;
+        return this;
+    }
+
+    public InstanceGenerator withInstructors(int count) {
+        if (count < DEPARTMENTS.length) {
+            throw new IllegalArgumentException("Need at least one instructor per department (" +
+                                               DEPARTMENTS.length + ")");
+        }
+        this.instructors = count;
+        return this;
+    }
+
+    public InstanceGenerator withRooms(int lectureRooms, int labRooms) {
+        if (lectureRooms < 1 || labRooms < 0) {
+            throw new IllegalArgumentException("Need at least one lecture room and no negative lab count");
+        }
+        this.lectureRooms = lectureRooms;
+        this.labRooms = labRooms;
+        return this;
+    }
+
+    // Share of courses with a lab; ignored (no labs) when withRooms asks for no lab rooms
+    public InstanceGenerator withLabFraction(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("Lab fraction must be between 0 and 1");
+        }
+        this.labFraction = fraction;
+        return this;
+    }
+
+    public InstanceGenerator withMedianEnrollment(int students) {
+        if (students < 1) {
+            throw new IllegalArgumentException("Median enrollment must be at least 1");
+        }
+        this.medianEnrollment = students;
+        return this;
+    }
+
+    // Adds the generated rooms, instructors and courses to 'store'
+    public InMemoryStore populate(InMemoryStore store) {
+        Random random = new Random(seed);
+
+        int largestRoom = addLectureRooms(store, random);
+        int largestLab = labRooms == SIZED ? LAB_CAPACITIES[LAB_CAPACITIES.length - 1] : addLabRooms(store, random);
+        List<List<String>> staff = addInstructors(store);
+        List<Course> labCourses = addCourses(store, random, staff, largestRoom, largestLab);
+        if (labRooms == SIZED) {
+            addLabRoomsFor(store, labCourses);
+        }
+
+        return store;
+    }
+
+    // Enough lecturers for every course under the lecture quota, and at
+    // least one per department
+    private int instructorCount() {
+        if (instructors != SIZED) return instructors;
+        int perLecturer = BITSConstraints.MAX_LECTURES_PER_FACULTY;
+        return Math.max(DEPARTMENTS.length, (courses + perLecturer - 1) / perLecturer);
+    }
+
+    // A new store holding just the generated data
+    public InMemoryStore generate() {
+        return populate(new InMemoryStore());
+    }
+
+    // Generates into a fresh store and writes it as CSV files to 'directory'
+    public void exportCsv(File directory) throws IOException {
+        CSVHandler.exportAll(generate(), directory);
+    }
+
+    private int addLectureRooms(InMemoryStore store, Random random) {
+        // About one room in twenty is a hall; the rest are sized like the
+        // courses, rounded up to a multiple of 20 seats
+        int largest = 0;
+        for (int i = 0; i < lectureRooms; i++) {
+            int capacity = i % 20 == 0 ? HALL_CAPACITY :
+                           Math.min(HALL_CAPACITY, roundUp(drawEnrollment(random, HALL_CAPACITY), 20));
+            store.addClassroom(new Classroom("F" + (101 + i), capacity).withAV(true));
+            largest = Math.max(largest, capacity);
+        }
+        return largest;
+    }
+
+    // Largest courses first, each into the lab being filled while it has
+    // room to spare, otherwise into a new lab of the smallest capacity that
+    // seats it. Every lab seats all the courses filled into it and those
+    // after it are smaller, so at every capacity threshold the labs that
+    // large hold the demand FeasibilityCheck counts against them.
+    private void addLabRoomsFor(InMemoryStore store, List<Course> labCourses) {
+        labCourses.sort((a, b) -> b.getEnrolledStudents() - a.getEnrolledStudents());
+        int periodLimit = (int) (FeasibilityCheck.teachingPeriodsPerWeek() * LAB_LOAD);
+        int blockLimit = (int) (FeasibilityCheck.labBlocksPerWeek() * LAB_LOAD);
+
+        int count = 0;
+        int periods = periodLimit;
+        int blocks = blockLimit;
+        for (Course course : labCourses) {
+            int needed = ConflictCounters.requiredHours(course);
+            int labBlocks = Session.labBlocks(course);
+            if (periods + needed > periodLimit || blocks + labBlocks > blockLimit) {
+                int capacity = LAB_CAPACITIES[LAB_CAPACITIES.length - 1];
+                for (int seats : LAB_CAPACITIES) {
+                    if (seats >= course.getEnrolledStudents()) {
+                        capacity = seats;
+                        break;
+                    }
+                }
+                count++;
+                store.addClassroom(new Classroom("D" + (100 + count), capacity).withAV(true).withComputers(capacity));
+                periods = 0;
+                blocks = 0;
+            }
+            periods += needed;
+            blocks += labBlocks;
+        }
+    }
+
+    private int addLabRooms(InMemoryStore store, Random random) {
+        int largest = 0;
+        for (int i = 0; i < labRooms; i++) {
+            int capacity = LAB_CAPACITIES[random.nextInt(LAB_CAPACITIES.length)];
+            store.addClassroom(new Classroom("D" + (101 + i), capacity).withAV(true).withComputers(capacity));
+            largest = Math.max(largest, capacity);
+        }
+        return largest;
+    }
+
+    // Instructors are dealt to departments in turn; returns their IDs by department
+    private List<List<String>> addInstructors(InMemoryStore store) {
+        List<List<String>> staff = new ArrayList<>();
+        for (int d = 0; d < DEPARTMENTS.length; d++) {
+            staff.add(new ArrayList<>());
+        }
+
+        for (int i = 0; i < instructorCount(); i++) {
+            int department = i % DEPARTMENTS.length;
+            String id = String.format("I%03d", i + 1);
+            store.addInstructor(new Instructor(id, DEPARTMENTS[department] + " Faculty " + (i + 1)));
+            staff.get(department).add(id);
+        }
+        return staff;
+    }
+
+    // Returns the courses with a lab
+    private List<Course> addCourses(InMemoryStore store, Random random, List<List<String>> staff,
+                                    int largestRoom, int largestLab) {
+        int[] numbers = new int[DEPARTMENTS.length];
+        int staffCount = instructorCount();
+        List<Course> labCourses = new ArrayList<>();
+
+        for (int i = 0; i < courses; i++) {
+            // Lecturers are dealt round the whole staff, so no one lectures
+            // more than their share of the courses; instructor n belongs to
+            // department n % DEPARTMENTS.length (see addInstructors)
+            int lecturer = i % staffCount;
+            int department = lecturer % DEPARTMENTS.length;
+            int number = 101 + numbers[department]++;
+            Course course = new Course(DEPARTMENTS[department] + " F" + number,
+                                       DEPARTMENTS[department] + " Course " + number);
+
+            boolean lab = labRooms != 0 && random.nextDouble() < labFraction;
+            course.setLectureHours(random.nextDouble() < 0.7 ? 3 : 2);
+            course.setTutorialHours(random.nextBoolean() ? 1 : 0);
+            course.setLabHours(lab ? BITSConstraints.LAB_DURATION : 0);
+            course.setCredits(course.getLectureHours() + (lab ? 1 : 0));
+            course.setEnrolledStudents(drawEnrollment(random, lab ? Math.min(largestRoom, largestLab) : largestRoom));
+            course.setDisplayColor(Color.getHSBColor((float) department / DEPARTMENTS.length, 0.25f, 1.0f));
+
+            // Extra instructors are picked at random from the department
+            List<String> pool = staff.get(department);
+            course.addInstructor(pool.get(lecturer / DEPARTMENTS.length));
+            double extra = random.nextDouble();
+            int extras = extra < 0.6 ? 0 : extra < 0.9 ? 1 : 2;
+            for (int k = 0; k < extras; k++) {
+                course.addInstructor(pool.get(random.nextInt(pool.size())));
+            }
+
+            store.addCourse(course);
+            if (lab) {
+                labCourses.add(course);
+            }
+        }
+        return labCourses;
+    }
+
+    private int drawEnrollment(Random random, int max) {
+        double students = medianEnrollment * Math.exp(ENROLLMENT_SPREAD * random.nextGaussian());
+        return Math.max(10, Math.min(max, (int) Math.round(students)));
+    }
+
+    private static int roundUp(int value, int step) {
+        return (value + step - 1) / step * step;
+    }
+
+    // Writes an instance for load tests:
+    // InstanceGenerator <directory> [courses instructors lectureRooms labRooms seed]
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1 && args.length != 6) {
+            System.err.println("Usage: InstanceGenerator <directory> [courses instructors lectureRooms labRooms seed]");
+            System.exit(1);
+        }
+
+        InstanceGenerator generator = new InstanceGenerator(args.length == 6 ? Long.parseLong(args[5]) : 1);
+        if (args.length == 6) {
+            generator.withCourses(Integer.parseInt(args[1]))
+                     .withInstructors(Integer.parseInt(args[2]))
+                     .withRooms(Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+        }
+        InMemoryStore store = generator.generate();
+        CSVHandler.exportAll(store, new File(args[0]));
+        System.out.println("Wrote " + store.getAllCourses().size() + " courses, " +
+                           store.getAllInstructors().size() + " instructors and " +
+                           store.getAllClassrooms().size() + " rooms to " + args[0]);
+    }
+}
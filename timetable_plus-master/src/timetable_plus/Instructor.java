@@ -1,7 +1,9 @@
 package timetable_plus;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public class Instructor implements Serializable {
@@ -11,6 +13,7 @@ public class Instructor implements Serializable {
     private int tutorialsAssigned;
     private int labsAssigned;
     private Set<String> assignedCourses;
+    private int preferredPeriods; // bit p set: prefers period p; 0 means no preference
 
     public Instructor(String id, String name) {
         this.id = id;
@@ -37,6 +40,18 @@ public class Instructor implements Serializable {
         return this;
     }
 
+    public Instructor withPreferredPeriods(int... periods) {
+        int mask = 0;
+        for (int period : periods) {
+            if (period < 0 || period >= InMemoryStore.PERIODS_PER_DAY) {
+                throw new IllegalArgumentException("Invalid period: " + period);
+            }
+            mask |= 1 << period;
+        }
+        this.preferredPeriods = mask;
+        return this;
+    }
+
     public void assignCourse(String courseCode, String sessionType) {
         assignedCourses.add(courseCode);
 
@@ -73,6 +88,15 @@ public class Instructor implements Serializable {
     public int getTutorialsAssigned() { return tutorialsAssigned; }
     public int getLabsAssigned() { return labsAssigned; }
     public Set<String> getAssignedCourses() { return assignedCourses; }
+    public int getPreferredPeriodMask() { return preferredPeriods; }
+
+    public List<Integer> getPreferredPeriods() {
+        List<Integer> periods = new ArrayList<>();
+        for (int p = 0; p < InMemoryStore.PERIODS_PER_DAY; p++) {
+            if ((preferredPeriods & (1 << p)) != 0) periods.add(p);
+        }
+        return periods;
+    }
 
     // Regular setters if needed
     public void setLecturesAssigned(int count) { this.lecturesAssigned = count; }
@@ -0,0 +1,215 @@
+package timetable_plus;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+// Single-trajectory optimizer for polishing an existing timetable. It walks
+// the same neighbourhood the GA's mutation uses: exchanging the contents of
+// two unlocked cells, in any rooms (a swap when both hold a session, a move
+// when one is empty). Only the current and the best genome are kept, and every step is
+// scored through the genome's incremental conflict counters.
+class LocalSearch {
+    // Iterations between progress reports and interruption checks
+    private static final int CHECK_INTERVAL = 500;
+
+    private final SolverConfig config;
+    private final Random rng;
+    private final long deadlineNanos;
+    private final long startNanos;
+    private SolverProgress.Listener listener;
+
+    private int[] movableCells;
+    private long evaluations;
+    private BITSTimetableEngine.StopReason stopReason;
+
+    LocalSearch(SolverConfig config, Random rng, long startNanos, long deadlineNanos) {
+        this.config = config;
+        this.rng = rng;
+        this.startNanos = startNanos;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    void setProgressListener(SolverProgress.Listener listener) {
+        this.listener = listener;
+    }
+
+    BITSTimetableEngine.StopReason getStopReason() {
+        return stopReason;
+    }
+
+    long getEvaluations() {
+        return evaluations;
+    }
+
+    // Improves a copy of the start genome and returns the best one visited
+    ScheduleGenome optimize(ScheduleGenome start) {
+        findMovableCells(start);
+        evaluations = 0;
+
+        if (movableCells.length < 2) {
+            stopReason = BITSTimetableEngine.StopReason.GENERATION_LIMIT;
+            return start;
+        }
+
+        return config.getLocalSearchMethod() == SolverConfig.LocalSearchMethod.TABU_SEARCH ?
+               tabuSearch(start.copy()) : anneal(start.copy());
+    }
+
+    private ScheduleGenome anneal(ScheduleGenome current) {
+        ScheduleGenome best = current.copy();
+        int iterations = config.getLocalSearchIterations();
+        int sinceImprovement = 0;
+        stopReason = BITSTimetableEngine.StopReason.GENERATION_LIMIT;
+
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            if (shouldStop(iteration, best, sinceImprovement)) break;
+
+            int cellA = randomSessionCell(current);
+            int cellB = randomCell();
+            if (cellA == cellB || current.isLocked(cellA)) continue;
+
+            int before = current.getConflicts();
+            current.swap(cellA, cellB);
+            evaluations++;
+            int delta = current.getConflicts() - before;
+
+            double temperature = temperatureAt(iteration, iterations);
+            if (delta > 0 && rng.nextDouble() >= Math.exp(-delta / temperature)) {
+                current.swap(cellA, cellB); // rejected
+            }
+
+            if (current.getConflicts() < best.getConflicts()) {
+                best = current.copy();
+                sinceImprovement = 0;
+            } else {
+                sinceImprovement++;
+            }
+        }
+
+        return best;
+    }
+
+    private double temperatureAt(int iteration, int iterations) {
+        double progress = iterations > 1 ? (double) iteration / (iterations - 1) : 1.0;
+        double initial = config.getInitialTemperature();
+        double last = config.getFinalTemperature();
+
+        if (config.getCoolingSchedule() == SolverConfig.CoolingSchedule.LINEAR) {
+            return initial + (last - initial) * progress;
+        }
+        return initial * Math.pow(last / initial, progress);
+    }
+
+    private ScheduleGenome tabuSearch(ScheduleGenome current) {
+        ScheduleGenome best = current.copy();
+        // Recently used cell pairs -> first iteration they are allowed again
+        Map<Long, Integer> tabuUntil = new HashMap<>();
+        int iterations = config.getLocalSearchIterations();
+        int sinceImprovement = 0;
+        stopReason = BITSTimetableEngine.StopReason.GENERATION_LIMIT;
+
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            if (shouldStop(iteration, best, sinceImprovement)) break;
+
+            // Best admissible move among a sample of the neighbourhood; a tabu
+            // move is allowed only if it beats the best schedule so far
+            int bestA = -1;
+            int bestB = -1;
+            int bestConflicts = Integer.MAX_VALUE;
+
+            for (int i = 0; i < config.getTabuCandidates(); i++) {
+                int cellA = randomSessionCell(current);
+                int cellB = randomCell();
+                if (cellA == cellB || current.isLocked(cellA)) continue;
+
+                current.swap(cellA, cellB);
+                evaluations++;
+                int conflicts = current.getConflicts();
+                current.swap(cellA, cellB);
+
+                boolean tabu = tabuUntil.getOrDefault(pairKey(cellA, cellB), 0) > iteration;
+                if ((!tabu || conflicts < best.getConflicts()) && conflicts < bestConflicts) {
+                    bestA = cellA;
+                    bestB = cellB;
+                    bestConflicts = conflicts;
+                }
+            }
+
+            if (bestA < 0) continue;
+
+            current.swap(bestA, bestB);
+            tabuUntil.put(pairKey(bestA, bestB), iteration + 1 + config.getTabuTenure());
+            if (iteration % CHECK_INTERVAL == 0) {
+                int now = iteration;
+                tabuUntil.values().removeIf(until -> until <= now);
+            }
+
+            if (current.getConflicts() < best.getConflicts()) {
+                best = current.copy();
+                sinceImprovement = 0;
+            } else {
+                sinceImprovement++;
+            }
+        }
+
+        return best;
+    }
+
+    // Target, stagnation (counted in iterations), deadline and cancellation
+    private boolean shouldStop(int iteration, ScheduleGenome best, int sinceImprovement) {
+        double bestFitness = BITSTimetableEngine.fitnessFor(best.getConflicts());
+        if (bestFitness >= config.getTargetFitness()) {
+            stopReason = BITSTimetableEngine.StopReason.TARGET_REACHED;
+            return true;
+        }
+        if (config.getStagnationLimit() > 0 && sinceImprovement >= config.getStagnationLimit()) {
+            stopReason = BITSTimetableEngine.StopReason.STAGNATION;
+            return true;
+        }
+
+        if (iteration % CHECK_INTERVAL != 0) return false;
+
+        if (listener != null && iteration > 0) {
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000L;
+            listener.onProgress(new SolverProgress(iteration, config.getLocalSearchIterations(),
+                                                   bestFitness, evaluations, elapsedMillis));
+        }
+        if (config.getCancellationToken().isCancelled()) {
+            stopReason = BITSTimetableEngine.StopReason.CANCELLED;
+            return true;
+        }
+        if (deadlineNanos != 0 && System.nanoTime() - deadlineNanos >= 0) {
+            stopReason = BITSTimetableEngine.StopReason.TIME_LIMIT;
+            return true;
+        }
+        return false;
+    }
+
+    private static long pairKey(int cellA, int cellB) {
+        return ((long) Math.min(cellA, cellB) << 32) | Math.max(cellA, cellB);
+    }
+
+    // Cells the search may change. Unlike the GA's mutation this includes the
+    // lunch break, so sessions stuck there can be moved out.
+    private void findMovableCells(ScheduleGenome genome) {
+        int count = 0;
+        int[] cells = new int[genome.getCellCount()];
+        for (int cell = 0; cell < genome.getCellCount(); cell++) {
+            if (!genome.isLocked(cell)) {
+                cells[count++] = cell;
+            }
+        }
+        movableCells = new int[count];
+        System.arraycopy(cells, 0, movableCells, 0, count);
+    }
+
+    private int randomCell() {
+        return movableCells[rng.nextInt(movableCells.length)];
+    }
+
+    // First cell of a move: one holding a session whenever possible
+    private int randomSessionCell(ScheduleGenome genome) {
+        return BITSTimetableEngine.randomSessionCell(genome, rng);
+    }
+}
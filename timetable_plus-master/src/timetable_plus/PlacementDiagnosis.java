@@ -0,0 +1,209 @@
+package timetable_plus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// Why a session could not be placed: the smallest set of facts that between
+// them rule out every start time in the week. There are four kinds of fact,
+// each a bitmask over the week's start cells:
+//  - the time window: lunch (and for labs, the end of the day)
+//  - lecture spacing: days on which the course already meets too close by
+//  - rooms: starts at which every candidate room is taken, or no room at all
+//  - instructors: starts at which every instructor is busy or at their cap
+// The room and instructor facts are built from the schedule's occupancy
+// masks, which it maintains incrementally, so a diagnosis costs a few mask
+// operations per candidate room and instructor and stops early once a
+// fact can no longer rule anything out.
+public class PlacementDiagnosis {
+    private static final String[] DAY_NAMES = {"Mon", "Tue", "Wed", "Thu", "Fri"};
+    private static final long ALL_CELLS = (1L << Schedule.CELLS) - 1;
+
+    private final Session session;
+    private final List<String> reasons;
+    private final boolean blocked;
+
+    private PlacementDiagnosis(Session session, List<String> reasons, boolean blocked) {
+        this.session = session;
+        this.reasons = reasons;
+        this.blocked = blocked;
+    }
+
+    public Session getSession() { return session; }
+    public List<String> getReasons() { return Collections.unmodifiableList(reasons); }
+
+    // False when some start was still open: no single fact explains the
+    // failure, which depends on where other sessions went (or on the
+    // allocator running out of attempts)
+    public boolean isBlocked() { return blocked; }
+
+    @Override
+    public String toString() {
+        return session + ": " + String.join("; ", reasons);
+    }
+
+    // Explains why 'session' does not fit into 'schedule' using the given
+    // candidate rooms; 'workloads' holds the instructors' current quotas
+    public static PlacementDiagnosis diagnose(Session session, List<Classroom> rooms, Schedule schedule,
+                                              Map<String, Instructor> workloads) {
+        List<String> texts = new ArrayList<>();
+        List<Long> masks = new ArrayList<>();
+
+        long window = windowMask(session);
+        addFact(texts, masks, window, session.isLab() ?
+            "a lab needs " + session.getDuration() + " periods in a row outside lunch (periods " +
+                BITSConstraints.LUNCH_START + "-" + (BITSConstraints.LUNCH_END - 1) + ")" :
+            "lunch blocks periods " + BITSConstraints.LUNCH_START + "-" + (BITSConstraints.LUNCH_END - 1));
+
+        if (session.isLecture()) {
+            long spacing = 0;
+            for (int day = 0; day < InMemoryStore.WORKING_DAYS; day++) {
+                if (BITSConflictChecker.hasCourseConflict(session.getCourse(), day, schedule)) {
+                    spacing |= Schedule.dayBits(day);
+                }
+            }
+            addFact(texts, masks, spacing, session.getCourse().getCourseCode() + " cannot lecture again " +
+                    describe(spacing, window) + " (within " + BITSConstraints.LECTURE_GAP_DAYS +
+                    " day of its other sessions)");
+        }
+
+        // Rooms follow Classroom.canHostCourse, so every session of a course
+        // with labs needs a lab, its lectures included
+        int seats = session.getCourse().getEnrolledStudents();
+        boolean labs = session.getCourse().getLabHours() > 0;
+        if (rooms.isEmpty()) {
+            addFact(texts, masks, ALL_CELLS, labs && !session.isLab() ?
+                    "no lab seats " + seats + " students, and " + session.getCourse().getCourseCode() +
+                        " has labs, so its " + session.getType() + "s are held in a lab too" :
+                    "no " + (labs ? "lab" : "lecture room") + " seats " + seats + " students");
+        } else {
+            long taken = ALL_CELLS;
+            for (Classroom room : rooms) {
+                taken &= startsBlocked(schedule.getRoomOccupancy(room.getRoomNumber()), session.getDuration());
+                if ((taken & ~window) == 0) break;
+            }
+            addFact(texts, masks, taken, "no " + (labs ? "lab" : "room") + " >=" + seats +
+                    " seats free " + describe(taken, window));
+        }
+
+        addInstructorFact(session, schedule, workloads, window, texts, masks);
+
+        return smallestCover(session, texts, masks, window);
+    }
+
+    private static void addInstructorFact(Session session, Schedule schedule, Map<String, Instructor> workloads,
+                                          long window, List<String> texts, List<Long> masks) {
+        List<String> details = new ArrayList<>();
+        long unavailable = ALL_CELLS;
+
+        for (String instructorId : session.getCourse().getInstructors()) {
+            Instructor instructor = workloads.get(instructorId);
+            if (instructor == null) continue;
+
+            if (!instructor.canTeach(session.getType())) {
+                details.add(instructorId + " at " + session.getType() + " cap");
+            } else {
+                long busy = startsBlocked(schedule.getInstructorOccupancy(instructorId), session.getDuration());
+                unavailable &= busy;
+                details.add(instructorId + " busy " + describe(busy, window));
+            }
+        }
+
+        if (details.isEmpty()) {
+            addFact(texts, masks, ALL_CELLS, "no instructor in the store teaches " +
+                    session.getCourse().getCourseCode());
+        } else {
+            addFact(texts, masks, unavailable, String.join(", ", details));
+        }
+    }
+
+    private static void addFact(List<String> texts, List<Long> masks, long mask, String text) {
+        if (mask != 0) {
+            texts.add(text);
+            masks.add(mask);
+        }
+    }
+
+    // At most four facts, so every subset is tried, smallest first
+    private static PlacementDiagnosis smallestCover(Session session, List<String> texts, List<Long> masks, long window) {
+        int facts = texts.size();
+        int best = -1;
+
+        for (int subset = 1; subset < (1 << facts); subset++) {
+            long union = 0;
+            for (int i = 0; i < facts; i++) {
+                if ((subset & (1 << i)) != 0) union |= masks.get(i);
+            }
+            if (union == ALL_CELLS && (best < 0 || Integer.bitCount(subset) < Integer.bitCount(best))) {
+                best = subset;
+            }
+        }
+
+        List<String> reasons = new ArrayList<>();
+        if (best < 0) {
+            // Nothing rules out every start: report what there is and the gap
+            long union = 0;
+            for (long mask : masks) union |= mask;
+            reasons.addAll(texts);
+            reasons.add("still free " + describe(~union & ALL_CELLS, window) +
+                        ", so the clash is with how other sessions were placed");
+            return new PlacementDiagnosis(session, reasons, false);
+        }
+
+        for (int i = 0; i < facts; i++) {
+            if ((best & (1 << i)) != 0) reasons.add(texts.get(i));
+        }
+        return new PlacementDiagnosis(session, reasons, true);
+    }
+
+    // Starts at which the session would run into lunch or past the end of the day
+    private static long windowMask(Session session) {
+        long mask = 0;
+        for (int day = 0; day < InMemoryStore.WORKING_DAYS; day++) {
+            for (int period = 0; period < InMemoryStore.PERIODS_PER_DAY; period++) {
+                if (!session.fitsAt(period)) mask |= Schedule.cellBit(day, period);
+            }
+        }
+        return mask;
+    }
+
+    // Starts whose block overlaps an occupied cell. Shifting can carry the
+    // first period of a day onto the last one of the day before, but a block
+    // cannot start there anyway.
+    private static long startsBlocked(long occupied, int duration) {
+        long blocked = occupied;
+        for (int k = 1; k < duration; k++) {
+            blocked |= occupied >>> k;
+        }
+        return blocked & ALL_CELLS;
+    }
+
+    // "on Mon/Wed" for days with every possible start covered, "Tue P1, P3"
+    // for the rest; starts the window already rules out are left out
+    private static String describe(long mask, long window) {
+        List<String> fullDays = new ArrayList<>();
+        List<String> partial = new ArrayList<>();
+
+        for (int day = 0; day < InMemoryStore.WORKING_DAYS; day++) {
+            long open = Schedule.dayBits(day) & ~window;
+            long covered = mask & open;
+            if (covered == 0) continue;
+
+            if (covered == open) {
+                fullDays.add(DAY_NAMES[day]);
+            } else {
+                List<String> periods = new ArrayList<>();
+                for (int period = 0; period < InMemoryStore.PERIODS_PER_DAY; period++) {
+                    if ((covered & Schedule.cellBit(day, period)) != 0) periods.add("P" + period);
+                }
+                partial.add(DAY_NAMES[day] + " " + String.join(", ", periods));
+            }
+        }
+
+        List<String> parts = new ArrayList<>();
+        if (!fullDays.isEmpty()) parts.add("on " + String.join("/", fullDays));
+        parts.addAll(partial);
+        return parts.isEmpty() ? "never" : String.join("; ", parts);
+    }
+}
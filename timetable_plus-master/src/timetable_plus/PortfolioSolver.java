@@ -0,0 +1,297 @@
+package timetable_plus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Races several solver strategies, one thread each, against the same
+// snapshot of the store. The first schedule to reach the target fitness
+// wins and the others are cancelled; otherwise the best schedule at the
+// deadline (or once every strategy has finished) is returned. The
+// portfolio's own config sets the shared budget (target fitness, time
+// limit, cancellation and seed); each strategy's config sets the rest.
+// Nothing is printed: the winner, its stop reason and every strategy's
+// record (failures included) are kept for the caller to read. Those
+// records live only as long as the solver; to keep them, set a stats sink
+// (e.g. a PortfolioStatsFileWriter, which appends them to a CSV file) and
+// it receives them after every race.
+public class PortfolioSolver {
+    // A named solver configuration taking part in the race
+    public static class Strategy {
+        private final String name;
+        private final SolverConfig config;
+
+        public Strategy(String name, SolverConfig config) {
+            if (name == null || name.isEmpty()) {
+                throw new IllegalArgumentException("Strategy name cannot be empty");
+            }
+            if (config == null) {
+                throw new IllegalArgumentException("Strategy config cannot be null");
+            }
+            this.name = name;
+            this.config = config;
+        }
+
+        public String getName() { return name; }
+        public SolverConfig getConfig() { return config; }
+    }
+
+    // Race results of one strategy over the lifetime of this solver
+    public static class StrategyStats {
+        private int races;
+        private int finished; // races it completed before being cancelled
+        private int wins;
+        private int failures; // races it ended by throwing
+        private long winningMillis;
+        private double bestFitness = Double.NEGATIVE_INFINITY;
+        private Throwable lastFailure;
+
+        public int getRaces() { return races; }
+        public int getFinished() { return finished; }
+        public int getWins() { return wins; }
+        public int getFailures() { return failures; }
+        public Throwable getLastFailure() { return lastFailure; }
+        public double getWinRate() { return races > 0 ? (double) wins / races : 0; }
+        public double getBestFitness() { return bestFitness; } // over the races it finished
+
+        // Mean time the strategy took to finish the races it won
+        public long getAverageWinningMillis() {
+            return wins > 0 ? winningMillis / wins : 0;
+        }
+
+        @Override
+        public String toString() {
+            String summary = String.format("%d/%d wins (%.0f%%), avg %d ms per win, finished %d",
+                                           wins, races, getWinRate() * 100, getAverageWinningMillis(), finished);
+            if (finished > 0) summary += String.format(", best fitness %.3f", bestFitness);
+            return failures > 0 ? summary + ", failed " + failures + " (last: " + lastFailure + ")" : summary;
+        }
+    }
+
+    // Outcome of one strategy in one race
+    private static class Entry {
+        private final Strategy strategy;
+        private final BITSTimetableEngine engine;
+        private final Schedule schedule;
+        private final double fitness;
+        private final long millis;
+
+        Entry(Strategy strategy, BITSTimetableEngine engine, Schedule schedule, double fitness, long millis) {
+            this.strategy = strategy;
+            this.engine = engine;
+            this.schedule = schedule;
+            this.fitness = fitness;
+            this.millis = millis;
+        }
+    }
+
+    private final SolverConfig config;
+    private final List<Strategy> strategies = new ArrayList<>();
+    private final Map<String, StrategyStats> statistics = new LinkedHashMap<>();
+    private SolverProgress.Listener progressListener;
+    private PortfolioStatsSink statsSink;
+    private double reportedFitness;
+    private String lastWinner;
+    private BITSTimetableEngine.StopReason lastStopReason;
+    private FeasibilityCheck lastFeasibilityCheck;
+
+    public PortfolioSolver(SolverConfig config) {
+        if (config == null) {
+            throw new IllegalArgumentException("Solver config cannot be null");
+        }
+        this.config = config;
+    }
+
+    // The standard mix: the genetic algorithm with its default and with a
+    // small, fast-mutating population, heuristic allocation repaired by tabu
+    // search, and simulated annealing
+    public static PortfolioSolver withDefaultStrategies(SolverConfig config) {
+        return new PortfolioSolver(config)
+            .withStrategy("GA", config.copy()
+                .withAlgorithm(SolverConfig.Algorithm.GENETIC))
+            .withStrategy("GA (small, high mutation)", config.copy()
+                .withAlgorithm(SolverConfig.Algorithm.GENETIC)
+                .withPopulationSize(40)
+                .withMutationRate(0.08)
+                .withTournamentSize(3))
+            .withStrategy("Greedy + tabu repair", config.copy()
+                .withAlgorithm(SolverConfig.Algorithm.LOCAL_SEARCH)
+                .withLocalSearch(SolverConfig.LocalSearchMethod.TABU_SEARCH, config.getLocalSearchIterations()))
+            .withStrategy("Simulated annealing", config.copy()
+                .withAlgorithm(SolverConfig.Algorithm.LOCAL_SEARCH)
+                .withLocalSearch(SolverConfig.LocalSearchMethod.SIMULATED_ANNEALING, config.getLocalSearchIterations()));
+    }
+
+    public PortfolioSolver withStrategy(String name, SolverConfig strategyConfig) {
+        if (statistics.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate strategy name: " + name);
+        }
+        strategies.add(new Strategy(name, strategyConfig));
+        statistics.put(name, new StrategyStats());
+        return this;
+    }
+
+    public List<Strategy> getStrategies() {
+        return Collections.unmodifiableList(strategies);
+    }
+
+    public Map<String, StrategyStats> getStatistics() {
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    // Name of the strategy whose schedule the last race returned
+    public String getLastWinner() {
+        return lastWinner;
+    }
+
+    public BITSTimetableEngine.StopReason getLastStopReason() {
+        return lastStopReason;
+    }
+
+    // Pre-check of the last race, or null if it was disabled
+    public FeasibilityCheck getLastFeasibilityCheck() {
+        return lastFeasibilityCheck;
+    }
+
+    // Receives every strategy's progress snapshots that improve on the best
+    // fitness reported so far in the current race
+    public void setProgressListener(SolverProgress.Listener listener) {
+        this.progressListener = listener;
+    }
+
+    // Receives every strategy's statistics after each race; never closed here
+    public void setStatsSink(PortfolioStatsSink sink) {
+        this.statsSink = sink;
+    }
+
+    public Schedule solve() {
+        if (strategies.isEmpty()) {
+            throw new IllegalStateException("Portfolio has no strategies");
+        }
+
+        InMemoryStore snapshot = InMemoryStore.getInstance().snapshot();
+
+        // Checked once here rather than by every strategy
+        lastFeasibilityCheck = null;
+        if (config.isPreCheckEnabled()) {
+            lastFeasibilityCheck = new FeasibilityCheck(snapshot);
+            lastFeasibilityCheck.run();
+            if (!lastFeasibilityCheck.isFeasible()) {
+                lastWinner = null;
+                lastStopReason = BITSTimetableEngine.StopReason.INFEASIBLE;
+                return new Schedule("Portfolio " + new Date());
+            }
+        }
+
+        CancellationToken raceToken = new CancellationToken(config.getCancellationToken());
+        SplittableRandom seeds = config.getSeed() != null ? new SplittableRandom(config.getSeed()) : null;
+        reportedFitness = Double.NEGATIVE_INFINITY;
+
+        ExecutorService executor = Executors.newFixedThreadPool(strategies.size());
+        CompletionService<Entry> race = new ExecutorCompletionService<>(executor);
+        Map<Future<Entry>, Strategy> running = new HashMap<>();
+        long startNanos = System.nanoTime();
+
+        for (Strategy strategy : strategies) {
+            SolverConfig runConfig = strategy.getConfig().copy()
+                .withTargetFitness(config.getTargetFitness())
+                .withTimeLimitMillis(config.getTimeLimitMillis())
+                .withCancellationToken(raceToken)
+                .withPreCheck(false);
+            if (seeds != null) {
+                // One stream per strategy, split off in a fixed order
+                runConfig.withSeed(seeds.split().nextLong());
+            }
+
+            BITSTimetableEngine engine = new BITSTimetableEngine(snapshot, runConfig);
+            engine.setProgressListener(this::forwardProgress);
+            running.put(race.submit(() -> {
+                Schedule schedule = engine.generateSchedule();
+                return new Entry(strategy, engine, schedule, engine.calculateFitness(schedule),
+                                 (System.nanoTime() - startNanos) / 1_000_000L);
+            }), strategy);
+        }
+
+        List<Entry> finished = new ArrayList<>();
+        Entry best = null;
+        Throwable failure = null;
+        try {
+            for (int i = 0; i < strategies.size(); i++) {
+                Future<Entry> done = race.take();
+                Entry entry;
+                try {
+                    entry = done.get();
+                } catch (ExecutionException e) {
+                    // One broken strategy should not sink the whole race; its
+                    // statistics keep the error
+                    failure = e.getCause();
+                    StrategyStats stats = statistics.get(running.get(done).getName());
+                    stats.failures++;
+                    stats.lastFailure = failure;
+                    continue;
+                }
+
+                finished.add(entry);
+                if (best == null || entry.fitness > best.fitness) {
+                    best = entry;
+                }
+                if (entry.fitness >= config.getTargetFitness()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Portfolio race interrupted", e);
+        } finally {
+            // Losers stop at their next cancellation check
+            raceToken.cancel();
+            executor.shutdown();
+        }
+
+        if (best == null) {
+            throw new IllegalStateException("Every portfolio strategy failed", failure);
+        }
+
+        recordRace(best, finished);
+        return best.schedule;
+    }
+
+    private synchronized void forwardProgress(SolverProgress progress) {
+        if (progressListener != null && progress.getBestFitness() > reportedFitness) {
+            reportedFitness = progress.getBestFitness();
+            progressListener.onProgress(progress);
+        }
+    }
+
+    private void recordRace(Entry winner, List<Entry> finished) {
+        lastWinner = winner.strategy.getName();
+        lastStopReason = winner.engine.getLastStopReason();
+
+        for (StrategyStats stats : statistics.values()) {
+            stats.races++;
+        }
+        for (Entry entry : finished) {
+            StrategyStats stats = statistics.get(entry.strategy.getName());
+            stats.finished++;
+            stats.bestFitness = Math.max(stats.bestFitness, entry.fitness);
+        }
+        StrategyStats stats = statistics.get(lastWinner);
+        stats.wins++;
+        stats.winningMillis += winner.millis;
+
+        if (statsSink != null) {
+            statsSink.record(lastWinner, getStatistics());
+        }
+    }
+}
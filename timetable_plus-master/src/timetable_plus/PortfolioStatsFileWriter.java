@@ -0,0 +1,64 @@
+package timetable_plus;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Map;
+
+// Appends a portfolio's strategy statistics to a CSV file, one row per
+// strategy per race; the counts are running totals for the solver, so the
+// last race of a run holds its summary. Runs append to the same file.
+// The header row is written only when the file is new or empty. Every race
+// is flushed, so the file can be read while the solver is still in use.
+public class PortfolioStatsFileWriter implements PortfolioStatsSink {
+    private static final String[] COLUMNS = {
+        "race", "strategy", "won", "finished", "wins", "failures",
+        "averageWinningMillis", "bestFitness", "lastFailure"
+    };
+
+    private final PrintWriter writer;
+
+    public PortfolioStatsFileWriter(File file) throws IOException {
+        boolean fresh = !file.exists() || file.length() == 0;
+        this.writer = new PrintWriter(new BufferedWriter(new FileWriter(file, true)));
+
+        if (fresh) {
+            writer.println(String.join(",", COLUMNS));
+            writer.flush();
+        }
+    }
+
+    @Override
+    public synchronized void record(String winner, Map<String, PortfolioSolver.StrategyStats> statistics) {
+        for (Map.Entry<String, PortfolioSolver.StrategyStats> entry : statistics.entrySet()) {
+            PortfolioSolver.StrategyStats stats = entry.getValue();
+            // No fitness until the strategy finishes a race
+            String bestFitness = stats.getFinished() > 0
+                ? String.format(Locale.ROOT, "%.6f", stats.getBestFitness()) : "";
+            String lastFailure = stats.getLastFailure() != null ? String.valueOf(stats.getLastFailure()) : "";
+
+            // Every strategy runs in every race, so its race count numbers the race
+            writer.println(String.join(",",
+                String.valueOf(stats.getRaces()), quote(entry.getKey()), String.valueOf(entry.getKey().equals(winner)),
+                String.valueOf(stats.getFinished()), String.valueOf(stats.getWins()), String.valueOf(stats.getFailures()),
+                String.valueOf(stats.getAverageWinningMillis()), bestFitness, quote(lastFailure)));
+        }
+        writer.flush();
+    }
+
+    // Strategy names and error messages may hold commas or quotes
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
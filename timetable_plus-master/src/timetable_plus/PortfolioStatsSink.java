@@ -0,0 +1,14 @@
+package timetable_plus;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Receives a portfolio's strategy statistics after every race it finishes
+// (see PortfolioSolver.setStatsSink), keyed by strategy name in the order
+// the strategies were added. Called on the thread that ran the race. The
+// solver never closes a sink; its owner does.
+public interface PortfolioStatsSink {
+    void record(String winner, Map<String, PortfolioSolver.StrategyStats> statistics);
+
+    default void close() throws IOException {}
+}
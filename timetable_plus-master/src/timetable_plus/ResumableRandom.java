@@ -0,0 +1,76 @@
+package timetable_plus;
+
+import java.util.Random;
+
+// java.util.Random whose state can be read and restored, so a checkpointed
+// GA run continues with exactly the numbers it would have drawn. It is the
+// same 48-bit generator, so a given seed produces the same stream as a plain
+// Random. Each instance belongs to one thread; unlike Random it is not
+// safe to share.
+class ResumableRandom extends Random {
+    private static final long serialVersionUID = 1L;
+
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    // No initializers: Random's constructor sets them through setSeed
+    private long state;
+    private double nextNextGaussian;
+    private boolean haveNextNextGaussian;
+
+    ResumableRandom(long seed) {
+        super(seed);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        state = (seed ^ MULTIPLIER) & MASK;
+        haveNextNextGaussian = false;
+    }
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    // Same polar method as Random; its cached second value is part of the state
+    @Override
+    public double nextGaussian() {
+        if (haveNextNextGaussian) {
+            haveNextNextGaussian = false;
+            return nextNextGaussian;
+        }
+
+        double v1, v2, s;
+        do {
+            v1 = 2 * nextDouble() - 1;
+            v2 = 2 * nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+        nextNextGaussian = v2 * multiplier;
+        haveNextNextGaussian = true;
+        return v1 * multiplier;
+    }
+
+    // State as stored in a checkpoint
+    long getState() {
+        return state;
+    }
+
+    boolean hasCachedGaussian() {
+        return haveNextNextGaussian;
+    }
+
+    double getCachedGaussian() {
+        return nextNextGaussian;
+    }
+
+    void restore(long state, boolean haveCachedGaussian, double cachedGaussian) {
+        this.state = state & MASK;
+        this.haveNextNextGaussian = haveCachedGaussian;
+        this.nextNextGaussian = cachedGaussian;
+    }
+}
@@ -0,0 +1,59 @@
+package timetable_plus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Classrooms split into labs and ordinary rooms, each list kept sorted by
+// capacity, so the rooms big enough for a course are a suffix found by
+// binary search instead of a scan over every room. InMemoryStore keeps it in
+// step with its classrooms.
+class RoomIndex {
+    private final List<Classroom> labs = new ArrayList<>();
+    private final List<Classroom> ordinary = new ArrayList<>();
+
+    void add(Classroom room) {
+        List<Classroom> rooms = roomsOfKind(room.isLab());
+        // After any rooms of equal capacity, so equal rooms keep insertion order
+        rooms.add(firstAtLeast(rooms, room.getCapacity() + 1), room);
+    }
+
+    void remove(Classroom room) {
+        List<Classroom> rooms = roomsOfKind(room.isLab());
+        for (int i = firstAtLeast(rooms, room.getCapacity()); 
+             i < rooms.size() && rooms.get(i).getCapacity() == room.getCapacity(); i++) {
+            if (rooms.get(i) == room) {
+                rooms.remove(i);
+                return;
+            }
+        }
+    }
+
+    // Rooms of the given kind seating at least minCapacity, smallest first
+    List<Classroom> atLeast(boolean lab, int minCapacity) {
+        List<Classroom> rooms = roomsOfKind(lab);
+        return new ArrayList<>(rooms.subList(firstAtLeast(rooms, minCapacity), rooms.size()));
+    }
+
+    int countAtLeast(boolean lab, int minCapacity) {
+        List<Classroom> rooms = roomsOfKind(lab);
+        return rooms.size() - firstAtLeast(rooms, minCapacity);
+    }
+
+    private List<Classroom> roomsOfKind(boolean lab) {
+        return lab ? labs : ordinary;
+    }
+
+    private static int firstAtLeast(List<Classroom> rooms, int capacity) {
+        int low = 0;
+        int high = rooms.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rooms.get(mid).getCapacity() < capacity) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -1,43 +1,168 @@
 package timetable_plus;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class Schedule implements Serializable {
+    // Cells in one room's week, one per (day, period)
+    public static final int CELLS = InMemoryStore.WORKING_DAYS * InMemoryStore.PERIODS_PER_DAY;
+    
     private String name;
-    private ScheduleSlot[][] slots;
+    private Long seed; // seed of the generation run that produced this schedule, if known
+    
+    // Every session in the timetable, plus a dense room x day x period grid
+    // over them: grid[row * CELLS + day * PERIODS_PER_DAY + period] holds
+    // 1 + the index in 'slots' of the session using that room, or 0 if it is
+    // free. A room gets a row the first time it is booked, so memory grows
+    // with the rooms actually in use (4 bytes per room-period).
+    private List<ScheduleSlot> slots = new ArrayList<>();
+    private List<String> rooms = new ArrayList<>();
+    private Map<String, Integer> roomRows = new HashMap<>();
+    private int[] grid = new int[0];
+    
+    // Fitness cached by the optimizer; cleared whenever one of our slots changes
+    private transient double cachedFitness;
+    private transient boolean fitnessValid;
+    
+    // Occupancy bitmasks, one bit per (day, period) cell: bit day * PERIODS_PER_DAY + period.
+    // Kept in step with the slots through the change hooks below.
+    private transient Map<String, Occupancy> roomOccupancy;
+    private transient Map<String, Occupancy> instructorOccupancy;
+    private transient Map<String, Occupancy> courseOccupancy;
+    
+    // Mask of every period of day 0, and of every first period of the week
+    private static final long FIRST_DAY = (1L << InMemoryStore.PERIODS_PER_DAY) - 1;
+    private static final long FIRST_PERIODS;
+    static {
+        long mask = 0;
+        for (int day = 0; day < InMemoryStore.WORKING_DAYS; day++) {
+            mask |= cellBit(day, 0);
+        }
+        FIRST_PERIODS = mask;
+    }
+    
+    // Cells where one entity has a session starting, and the subset that are labs.
+    // An instructor or course can be in several rooms at once; only then are
+    // per-cell session counts kept, so a bit is cleared when its last session goes.
+    private static class Occupancy {
+        long starts;
+        long labStarts;
+        int[] sessions;
+        int[] labs;
+    }
     
     public Schedule(String name) {
         this.name = name;
-        this.slots = new ScheduleSlot[InMemoryStore.WORKING_DAYS][InMemoryStore.PERIODS_PER_DAY];
+        resetOccupancy();
     }
     
-    public void setSlot(int day, int period, ScheduleSlot slot) {
-        if (day < 0 || day >= InMemoryStore.WORKING_DAYS || 
-            period < 0 || period >= InMemoryStore.PERIODS_PER_DAY) {
-            throw new IllegalArgumentException("Invalid day or period");
+    // Books a room for one period; throws if the room is already taken
+    public ScheduleSlot allocate(Course course, String room, String instructor, int day, int period) {
+        ScheduleSlot slot = new ScheduleSlot(course, room, instructor);
+        addSlot(slot, day, period);
+        return slot;
+    }
+    
+    // Adds a session (e.g. one loaded from the database) at the given time
+    public void addSlot(ScheduleSlot slot, int day, int period) {
+        checkTime(day, period);
+        if (slot.getOwner() != null) {
+            throw new IllegalArgumentException("Slot already belongs to a schedule");
         }
-        slots[day][period] = slot;
+        checkPlacement(slot, slot.getCourse(), slot.getRoomNumber(), day, period);
+        
+        slot.place(this, slots.size(), day, period);
+        slots.add(slot);
+        slotChanged(slot);
     }
     
-    public ScheduleSlot getSlot(int day, int period) {
-        if (day < 0 || day >= InMemoryStore.WORKING_DAYS || 
-            period < 0 || period >= InMemoryStore.PERIODS_PER_DAY) {
-            throw new IllegalArgumentException("Invalid day or period");
+    public boolean removeSlot(ScheduleSlot slot) {
+        if (slot.getOwner() != this) {
+            return false;
+        }
+        
+        slotChanging(slot);
+        int index = slot.getIndex();
+        ScheduleSlot last = slots.remove(slots.size() - 1);
+        if (last != slot) {
+            // Move the last session into the gap
+            int cell = gridIndex(last);
+            if (cell >= 0 && grid[cell] == last.getIndex() + 1) {
+                grid[cell] = index + 1;
+            }
+            slots.set(index, last);
+            last.place(this, index, last.getDay(), last.getPeriod());
+        }
+        
+        slot.place(null, -1, slot.getDay(), slot.getPeriod());
+        invalidateFitness();
+        return true;
+    }
+    
+    // Removes every session that holds a room (locked ones included)
+    void clearRooms() {
+        for (int i = slots.size() - 1; i >= 0; i--) {
+            if (gridIndex(slots.get(i)) >= 0) {
+                removeSlot(slots.get(i));
+            }
+        }
+    }
+    
+    // The session using the room at that time, or null if the room is free
+    public ScheduleSlot getSlot(String room, int day, int period) {
+        checkTime(day, period);
+        Integer row = roomRows.get(room);
+        if (row == null) {
+            return null;
+        }
+        int occupant = grid[row * CELLS + cellOf(day, period)];
+        return occupant == 0 ? null : slots.get(occupant - 1);
+    }
+    
+    public boolean isRoomFree(String room, int day, int period) {
+        return getSlot(room, day, period) == null;
+    }
+    
+    // Every session running at that time, in room order
+    public List<ScheduleSlot> getSlots(int day, int period) {
+        checkTime(day, period);
+        List<ScheduleSlot> running = new ArrayList<>();
+        int cell = cellOf(day, period);
+        
+        for (int row = 0; row < rooms.size(); row++) {
+            int occupant = grid[row * CELLS + cell];
+            if (occupant != 0) {
+                running.add(slots.get(occupant - 1));
+            }
         }
-        return slots[day][period];
+        
+        return running;
+    }
+    
+    // Every session in the schedule, including any without a room or course
+    public List<ScheduleSlot> getSlots() {
+        return Collections.unmodifiableList(slots);
+    }
+    
+    // Rooms with a row in the grid, in row order
+    public List<String> getRooms() {
+        return Collections.unmodifiableList(rooms);
     }
     
     public List<ScheduleSlot> getCourseAllocations(Course course) {
         List<ScheduleSlot> allocations = new ArrayList<>();
         
-        for(int day = 0; day < InMemoryStore.WORKING_DAYS; day++) {
-            for(int period = 0; period < InMemoryStore.PERIODS_PER_DAY; period++) {
-                if(slots[day][period].getCourse() != null &&
-                   slots[day][period].getCourse().getCourseCode().equals(course.getCourseCode())) {
-                    allocations.add(slots[day][period]);
-                }
+        for (ScheduleSlot slot : slots) {
+            if (slot.getCourse() != null &&
+                slot.getCourse().getCourseCode().equals(course.getCourseCode())) {
+                allocations.add(slot);
             }
         }
         
@@ -47,11 +172,12 @@ public class Schedule implements Serializable {
     public List<ScheduleSlot> getRoomAllocations(String roomId) {
         List<ScheduleSlot> allocations = new ArrayList<>();
         
-        for(int day = 0; day < InMemoryStore.WORKING_DAYS; day++) {
-            for(int period = 0; period < InMemoryStore.PERIODS_PER_DAY; period++) {
-                if(slots[day][period].getRoomNumber() != null &&
-                   slots[day][period].getRoomNumber().equals(roomId)) {
-                    allocations.add(slots[day][period]);
+        Integer row = roomRows.get(roomId);
+        if (row != null) {
+            for (int cell = 0; cell < CELLS; cell++) {
+                int occupant = grid[row * CELLS + cell];
+                if (occupant != 0) {
+                    allocations.add(slots.get(occupant - 1));
                 }
             }
         }
@@ -62,23 +188,243 @@ public class Schedule implements Serializable {
     public List<ScheduleSlot> getInstructorAllocations(String instructorId) {
         List<ScheduleSlot> allocations = new ArrayList<>();
         
-        for(int day = 0; day < InMemoryStore.WORKING_DAYS; day++) {
-            for(int period = 0; period < InMemoryStore.PERIODS_PER_DAY; period++) {
-                if(slots[day][period].getInstructorId() != null &&
-                   slots[day][period].getInstructorId().equals(instructorId)) {
-                    allocations.add(slots[day][period]);
-                }
+        for (ScheduleSlot slot : slots) {
+            if (slot.getCourse() != null && instructorId.equals(slot.getInstructorId())) {
+                allocations.add(slot);
             }
         }
         
         return allocations;
     }
     
-    public ScheduleSlot[][] getSlots() {
-        return slots;
+    public static int cellOf(int day, int period) {
+        return day * InMemoryStore.PERIODS_PER_DAY + period;
+    }
+    
+    public static long cellBit(int day, int period) {
+        return 1L << (day * InMemoryStore.PERIODS_PER_DAY + period);
+    }
+    
+    // Every cell of the given day
+    public static long dayBits(int day) {
+        return FIRST_DAY << (day * InMemoryStore.PERIODS_PER_DAY);
+    }
+    
+    // Cells during which the room is in use (labs cover LAB_DURATION periods)
+    public long getRoomOccupancy(String roomId) {
+        return covered(roomOccupancy.get(roomId));
+    }
+    
+    public long getInstructorOccupancy(String instructorId) {
+        return covered(instructorOccupancy.get(instructorId));
+    }
+    
+    // Cells where a session of the course starts
+    public long getCourseOccupancy(Course course) {
+        Occupancy occupancy = courseOccupancy.get(course.getCourseCode());
+        return occupancy == null ? 0 : occupancy.starts;
+    }
+    
+    private static long covered(Occupancy occupancy) {
+        if (occupancy == null) return 0;
+        
+        long cells = occupancy.starts;
+        long lab = occupancy.labStarts;
+        for (int i = 1; i < BITSConstraints.LAB_DURATION; i++) {
+            // Extend each lab one period later, without spilling into the next day
+            lab = (lab << 1) & ~FIRST_PERIODS;
+            cells |= lab;
+        }
+        return cells;
+    }
+    
+    // An independent copy with the same sessions, locks and seed; changes to
+    // either schedule's slots do not reach the other
+    public Schedule copy() {
+        Schedule copy = new Schedule(name);
+        copy.seed = seed;
+        for (ScheduleSlot slot : slots) {
+            ScheduleSlot clone = new ScheduleSlot(slot.getCourse(), slot.getRoomNumber(), slot.getInstructorId());
+            clone.setLocked(slot.isLocked());
+            copy.addSlot(clone, slot.getDay(), slot.getPeriod());
+        }
+        return copy;
     }
     
     public String getName() {
         return name;
     }
+    
+    // Null for schedules that were not generated (or predate seed recording)
+    public Long getSeed() {
+        return seed;
+    }
+    
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+    
+    // Fitness cache
+    public boolean hasCachedFitness() {
+        return fitnessValid;
+    }
+    
+    public double getCachedFitness() {
+        if (!fitnessValid) {
+            throw new IllegalStateException("Fitness has not been calculated for " + name);
+        }
+        return cachedFitness;
+    }
+    
+    public void setCachedFitness(double fitness) {
+        this.cachedFitness = fitness;
+        this.fitnessValid = true;
+    }
+    
+    public void invalidateFitness() {
+        fitnessValid = false;
+    }
+    
+    // Throws if moving 'slot' to this room and time would double-book the room
+    void checkPlacement(ScheduleSlot slot, Course course, String room, int day, int period) {
+        checkTime(day, period);
+        Integer row = roomRows.get(room);
+        if (course == null || row == null) {
+            return;
+        }
+        
+        int occupant = grid[row * CELLS + cellOf(day, period)];
+        if (occupant != 0 && slots.get(occupant - 1) != slot) {
+            throw new IllegalArgumentException("Room " + room + " is already booked on day " + 
+                                               day + ", period " + period);
+        }
+    }
+    
+    // Slot change hooks
+    void slotChanging(ScheduleSlot slot) {
+        int cell = gridIndex(slot);
+        if (cell >= 0 && grid[cell] == slot.getIndex() + 1) {
+            grid[cell] = 0;
+        }
+        
+        if (slot.getCourse() != null) {
+            int at = cellOf(slot.getDay(), slot.getPeriod());
+            boolean lab = slot.getCourse().getLabHours() > 0;
+            clear(roomOccupancy, slot.getRoomNumber(), at, lab);
+            clear(instructorOccupancy, slot.getInstructorId(), at, lab);
+            clear(courseOccupancy, slot.getCourse().getCourseCode(), at, lab);
+        }
+    }
+    
+    void slotChanged(ScheduleSlot slot) {
+        if (slot.getCourse() != null) {
+            if (slot.getRoomNumber() != null) {
+                internRoom(slot.getRoomNumber());
+                int cell = gridIndex(slot);
+                if (grid[cell] != 0 && grid[cell] != slot.getIndex() + 1) {
+                    throw new IllegalStateException("Room " + slot.getRoomNumber() + " is double-booked");
+                }
+                grid[cell] = slot.getIndex() + 1;
+            }
+            
+            int at = cellOf(slot.getDay(), slot.getPeriod());
+            boolean lab = slot.getCourse().getLabHours() > 0;
+            mark(roomOccupancy, slot.getRoomNumber(), at, lab);
+            mark(instructorOccupancy, slot.getInstructorId(), at, lab);
+            mark(courseOccupancy, slot.getCourse().getCourseCode(), at, lab);
+        }
+        invalidateFitness();
+    }
+    
+    // Grid position of a session that holds a room, or -1
+    private int gridIndex(ScheduleSlot slot) {
+        Integer row = slot.getRoomNumber() == null ? null : roomRows.get(slot.getRoomNumber());
+        if (slot.getCourse() == null || row == null) {
+            return -1;
+        }
+        return row * CELLS + cellOf(slot.getDay(), slot.getPeriod());
+    }
+    
+    private void internRoom(String room) {
+        if (roomRows.containsKey(room)) {
+            return;
+        }
+        
+        roomRows.put(room, rooms.size());
+        rooms.add(room);
+        if (grid.length < rooms.size() * CELLS) {
+            grid = Arrays.copyOf(grid, Math.max(rooms.size(), 2 * grid.length / CELLS) * CELLS);
+        }
+    }
+    
+    private static void checkTime(int day, int period) {
+        if (day < 0 || day >= InMemoryStore.WORKING_DAYS || 
+            period < 0 || period >= InMemoryStore.PERIODS_PER_DAY) {
+            throw new IllegalArgumentException("Invalid day or period");
+        }
+    }
+    
+    // A slot only occupies anything while it holds a course, matching ScheduleSlot.overlaps
+    private static void mark(Map<String, Occupancy> index, String key, int cell, boolean lab) {
+        if (key == null) return;
+        
+        Occupancy occupancy = index.computeIfAbsent(key, k -> new Occupancy());
+        long bit = 1L << cell;
+        if ((occupancy.starts & bit) != 0 && occupancy.sessions == null) {
+            // Second session in one period: start counting
+            occupancy.sessions = new int[CELLS];
+            occupancy.labs = new int[CELLS];
+            for (int c = 0; c < CELLS; c++) {
+                occupancy.sessions[c] = (int) (occupancy.starts >>> c) & 1;
+                occupancy.labs[c] = (int) (occupancy.labStarts >>> c) & 1;
+            }
+        }
+        
+        if (occupancy.sessions != null) {
+            occupancy.sessions[cell]++;
+            if (lab) {
+                occupancy.labs[cell]++;
+            }
+        }
+        occupancy.starts |= bit;
+        if (lab) {
+            occupancy.labStarts |= bit;
+        }
+    }
+    
+    private static void clear(Map<String, Occupancy> index, String key, int cell, boolean lab) {
+        Occupancy occupancy = key == null ? null : index.get(key);
+        if (occupancy == null) return;
+        
+        long bit = 1L << cell;
+        if (occupancy.sessions == null) {
+            occupancy.starts &= ~bit;
+            occupancy.labStarts &= ~bit;
+            return;
+        }
+        
+        if (--occupancy.sessions[cell] <= 0) {
+            occupancy.sessions[cell] = 0;
+            occupancy.starts &= ~bit;
+        }
+        if (lab && --occupancy.labs[cell] <= 0) {
+            occupancy.labs[cell] = 0;
+            occupancy.labStarts &= ~bit;
+        }
+    }
+    
+    private void resetOccupancy() {
+        roomOccupancy = new HashMap<>();
+        instructorOccupancy = new HashMap<>();
+        courseOccupancy = new HashMap<>();
+    }
+    
+    // The bitmasks are not serialized; rebuild them from the slots
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        resetOccupancy();
+        for (ScheduleSlot slot : slots) {
+            slotChanged(slot);
+        }
+    }
 }
@@ -0,0 +1,193 @@
+package timetable_plus;
+
+// Packed form of a Schedule used inside the optimizer: one cell per
+// (room, day, period), room-major, so the room of a session is implied by
+// where it sits. Each cell is two ints (course and instructor ids + 1, with
+// 0 for "none") and the lock flag rides in a spare bit of the course word,
+// so copying an individual is one System.arraycopy. A genome keeps its
+// conflict counters and a 64-bit Zobrist hash in step with every change and
+// caches its fitness until the next one.
+class ScheduleGenome {
+    // Layout, shared with scoring kernels that read the packed cells directly
+    static final int GENE_STRIDE = 2;
+    static final int COURSE = 0;
+    static final int INSTRUCTOR = 1;
+    static final int LOCKED = 1 << 30;
+    static final int ID_MASK = LOCKED - 1;
+
+    private final int[] genes;
+    private final ConflictCounters counters;
+    private long hash; // XOR of the keys of the occupied cells; 0 when empty
+    private double fitness;
+    private boolean fitnessValid;
+
+    // An empty timetable over the given rooms, tracked by the given (empty) counters
+    ScheduleGenome(int roomCount, ConflictCounters counters) {
+        this.genes = new int[roomCount * Schedule.CELLS * GENE_STRIDE];
+        this.counters = counters;
+    }
+
+    private ScheduleGenome(ScheduleGenome other) {
+        this.genes = new int[other.genes.length];
+        System.arraycopy(other.genes, 0, genes, 0, genes.length);
+        this.counters = other.counters.copy();
+        this.hash = other.hash;
+        this.fitness = other.fitness;
+        this.fitnessValid = other.fitnessValid;
+    }
+
+    ScheduleGenome copy() {
+        return new ScheduleGenome(this);
+    }
+
+    // The packed cells themselves; callers must not modify them
+    int[] getGenes() {
+        return genes;
+    }
+
+    int getCellCount() {
+        return genes.length / GENE_STRIDE;
+    }
+
+    static int cellOf(int room, int day, int period) {
+        return room * Schedule.CELLS + Schedule.cellOf(day, period);
+    }
+
+    static int roomOf(int cell) {
+        return cell / Schedule.CELLS;
+    }
+
+    static int dayOf(int cell) {
+        return cell % Schedule.CELLS / InMemoryStore.PERIODS_PER_DAY;
+    }
+
+    static int periodOf(int cell) {
+        return cell % InMemoryStore.PERIODS_PER_DAY;
+    }
+
+    int getCourse(int cell) {
+        return (genes[cell * GENE_STRIDE + COURSE] & ID_MASK) - 1;
+    }
+
+    int getInstructor(int cell) {
+        return genes[cell * GENE_STRIDE + INSTRUCTOR] - 1;
+    }
+
+    boolean isEmpty(int cell) {
+        return (genes[cell * GENE_STRIDE + COURSE] & ID_MASK) == 0;
+    }
+
+    boolean isLocked(int cell) {
+        return (genes[cell * GENE_STRIDE + COURSE] & LOCKED) != 0;
+    }
+
+    void set(int cell, int course, int instructor, boolean locked) {
+        retract(cell);
+        int base = cell * GENE_STRIDE;
+        genes[base + COURSE] = (course + 1) | (locked ? LOCKED : 0);
+        genes[base + INSTRUCTOR] = instructor + 1;
+        apply(cell);
+    }
+
+    // Copies cells [from, to) of another genome, locks included
+    void copyCells(ScheduleGenome source, int from, int to) {
+        for (int cell = from; cell < to; cell++) {
+            retract(cell);
+        }
+        System.arraycopy(source.genes, from * GENE_STRIDE, genes, from * GENE_STRIDE,
+                         (to - from) * GENE_STRIDE);
+        for (int cell = from; cell < to; cell++) {
+            apply(cell);
+        }
+    }
+
+    // Exchanges the sessions held by two cells, which may be in different
+    // rooms; lock bits stay where they are
+    void swap(int cellA, int cellB) {
+        if (cellA == cellB) return;
+
+        retract(cellA);
+        retract(cellB);
+
+        int a = cellA * GENE_STRIDE;
+        int b = cellB * GENE_STRIDE;
+        int lockA = genes[a + COURSE] & LOCKED;
+        int lockB = genes[b + COURSE] & LOCKED;
+        for (int i = 0; i < GENE_STRIDE; i++) {
+            int temp = genes[a + i];
+            genes[a + i] = genes[b + i];
+            genes[b + i] = temp;
+        }
+        genes[a + COURSE] = (genes[a + COURSE] & ID_MASK) | lockA;
+        genes[b + COURSE] = (genes[b + COURSE] & ID_MASK) | lockB;
+
+        apply(cellA);
+        apply(cellB);
+    }
+
+    private void retract(int cell) {
+        counters.remove(getCourse(cell), roomOf(cell), getInstructor(cell), dayOf(cell), periodOf(cell));
+        hash ^= keyOf(cell);
+        fitnessValid = false;
+    }
+
+    private void apply(int cell) {
+        counters.add(getCourse(cell), roomOf(cell), getInstructor(cell), dayOf(cell), periodOf(cell));
+        hash ^= keyOf(cell);
+    }
+
+    // Zobrist key of a cell's contents (lock flag included). Keys are
+    // derived by a SplitMix64 finalizer rather than drawn into a table, so
+    // they need no memory per course and cell and are the same in every run.
+    private long keyOf(int cell) {
+        int base = cell * GENE_STRIDE;
+        int course = genes[base + COURSE];
+        if ((course & ID_MASK) == 0) return 0;
+
+        long key = ((long) cell << 32 | course) * 0x9E3779B97F4A7C15L + genes[base + INSTRUCTOR];
+        key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+        key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+        return key ^ (key >>> 31);
+    }
+
+    // Equal timetables always have equal hashes; different ones almost never do
+    long getHash() {
+        return hash;
+    }
+
+    // Share of the cells occupied in either genome whose session differs
+    // between the two: 0 for identical timetables, 1 for disjoint ones
+    double distanceTo(ScheduleGenome other) {
+        int occupied = 0;
+        int different = 0;
+        for (int base = 0; base < genes.length; base += GENE_STRIDE) {
+            int course = genes[base + COURSE] & ID_MASK;
+            int otherCourse = other.genes[base + COURSE] & ID_MASK;
+            if (course == 0 && otherCourse == 0) continue;
+
+            occupied++;
+            if (course != otherCourse || genes[base + INSTRUCTOR] != other.genes[base + INSTRUCTOR]) {
+                different++;
+            }
+        }
+        return occupied > 0 ? (double) different / occupied : 0;
+    }
+
+    int getConflicts() {
+        return counters.getConflicts();
+    }
+
+    // Fitness cache
+    boolean hasFitness() {
+        return fitnessValid;
+    }
+
+    double getFitness() {
+        return fitness;
+    }
+
+    void setFitness(double fitness) {
+        this.fitness = fitness;
+        this.fitnessValid = true;
+    }
+}
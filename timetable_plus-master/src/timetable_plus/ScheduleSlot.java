@@ -9,6 +9,8 @@ public class ScheduleSlot implements Serializable {
     private boolean locked;
     private int day;
     private int period;
+    private Schedule owner; // schedule notified when this slot changes
+    private int index = -1; // position in the owner's session list
     
     public ScheduleSlot() {
         this.locked = false;
@@ -35,12 +37,55 @@ public class ScheduleSlot implements Serializable {
     
     public void allocate(Course course, String room, String instructor) {
         if (!locked) {
+            checkMove(course, room, day, period);
+            beforeChange();
             this.course = course;
             this.roomNumber = room;
             this.instructorId = instructor;
+            afterChange();
         }
     }
     
+    // Replaces the session and lock in one step, ignoring the current lock
+    public void assign(Course course, String room, String instructor, boolean locked) {
+        checkMove(course, room, day, period);
+        beforeChange();
+        this.course = course;
+        this.roomNumber = room;
+        this.instructorId = instructor;
+        this.locked = locked;
+        afterChange();
+    }
+    
+    // Copies the course, instructor and lock held by another slot into our
+    // room and time, ignoring our lock
+    public void copyFrom(ScheduleSlot source) {
+        assign(source.course, roomNumber, source.instructorId, source.locked);
+    }
+    
+    // Exchanges course and instructor with another slot; rooms, times and
+    // locks stay put
+    public void swapWith(ScheduleSlot other) {
+        if (other == this) return;
+        
+        checkMove(other.course, roomNumber, day, period);
+        other.checkMove(course, other.roomNumber, other.day, other.period);
+        beforeChange();
+        other.beforeChange();
+        
+        Course tempCourse = course;
+        String tempInstructor = instructorId;
+        
+        this.course = other.course;
+        this.instructorId = other.instructorId;
+        
+        other.course = tempCourse;
+        other.instructorId = tempInstructor;
+        
+        afterChange();
+        other.afterChange();
+    }
+    
     public boolean overlaps(int otherPeriod) {
         if (course == null) return false;
         
@@ -50,22 +95,55 @@ public class ScheduleSlot implements Serializable {
         return (period <= otherPeriod && otherPeriod < period + duration);
     }
     
+    // Room, day and period place a session in its schedule's grid, so the
+    // owner must agree before any of them (or the course) changes
+    private void checkMove(Course course, String room, int day, int period) {
+        if (owner != null) {
+            owner.checkPlacement(this, course, room, day, period);
+        }
+    }
+    
+    // Let the owning schedule retract and re-apply anything derived from this slot
+    private void beforeChange() {
+        if (owner != null) {
+            owner.slotChanging(this);
+        }
+    }
+    
+    private void afterChange() {
+        if (owner != null) {
+            owner.slotChanged(this);
+        }
+    }
+    
     // Getters and setters
     public Course getCourse() { return course; }
-    public void setCourse(Course course) { this.course = course; }
+    public void setCourse(Course course) { checkMove(course, roomNumber, day, period); beforeChange(); this.course = course; afterChange(); }
     
     public String getRoomNumber() { return roomNumber; }
-    public void setRoomNumber(String room) { this.roomNumber = room; }
+    public void setRoomNumber(String room) { checkMove(course, room, day, period); beforeChange(); this.roomNumber = room; afterChange(); }
     
     public String getInstructorId() { return instructorId; }
-    public void setInstructorId(String instructor) { this.instructorId = instructor; }
+    public void setInstructorId(String instructor) { beforeChange(); this.instructorId = instructor; afterChange(); }
     
     public boolean isLocked() { return locked; }
     public void setLocked(boolean locked) { this.locked = locked; }
     
     public int getDay() { return day; }
-    public void setDay(int day) { this.day = day; }
+    public void setDay(int day) { checkMove(course, roomNumber, day, period); beforeChange(); this.day = day; afterChange(); }
     
     public int getPeriod() { return period; }
-    public void setPeriod(int period) { this.period = period; }
+    public void setPeriod(int period) { checkMove(course, roomNumber, day, period); beforeChange(); this.period = period; afterChange(); }
+    
+    public Schedule getOwner() { return owner; }
+    int getIndex() { return index; }
+    
+    // Attach to (or, with a null owner, detach from) a schedule without
+    // notifying anyone
+    void place(Schedule owner, int index, int day, int period) {
+        this.owner = owner;
+        this.index = index;
+        this.day = day;
+        this.period = period;
+    }
 }
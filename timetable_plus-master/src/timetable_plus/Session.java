@@ -0,0 +1,84 @@
+package timetable_plus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// One weekly meeting a course needs: a single-period lecture or tutorial,
+// or a LAB_DURATION-period lab block
+public class Session {
+    public static final String LECTURE = "lecture";
+    public static final String TUTORIAL = "tutorial";
+    public static final String LAB = "lab";
+
+    private Course course;
+    private String type;
+    private int number; // 1-based within the course and type
+
+    public Session(Course course, String type, int number) {
+        this.course = course;
+        this.type = type;
+        this.number = number;
+    }
+
+    // Lab blocks a course needs each week; lab hours that are not a multiple
+    // of LAB_DURATION round up to a whole block
+    public static int labBlocks(Course course) {
+        return (course.getLabHours() + BITSConstraints.LAB_DURATION - 1) / BITSConstraints.LAB_DURATION;
+    }
+
+    // Every session the given courses need each week: labs first (they are
+    // the hardest to fit), then lectures, then tutorials
+    public static List<Session> requiredFor(Collection<Course> courses) {
+        List<Session> sessions = new ArrayList<>();
+
+        for (Course course : courses) {
+            int labBlocks = labBlocks(course);
+            for (int i = 1; i <= labBlocks; i++) {
+                sessions.add(new Session(course, LAB, i));
+            }
+        }
+        for (Course course : courses) {
+            for (int i = 1; i <= course.getLectureHours(); i++) {
+                sessions.add(new Session(course, LECTURE, i));
+            }
+        }
+        for (Course course : courses) {
+            for (int i = 1; i <= course.getTutorialHours(); i++) {
+                sessions.add(new Session(course, TUTORIAL, i));
+            }
+        }
+
+        return sessions;
+    }
+
+    public int getDuration() {
+        return isLab() ? BITSConstraints.LAB_DURATION : 1;
+    }
+
+    // True if the session can start at this period without running past the
+    // end of the day or into the lunch break
+    public boolean fitsAt(int period) {
+        if (period < 0 || period + getDuration() > InMemoryStore.PERIODS_PER_DAY) {
+            return false;
+        }
+        for (int p = period; p < period + getDuration(); p++) {
+            if (!BITSConstraints.isValidLunchBreak(p)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Getters
+    public Course getCourse() { return course; }
+    public String getType() { return type; }
+    public int getNumber() { return number; }
+    public boolean isLab() { return LAB.equals(type); }
+    public boolean isLecture() { return LECTURE.equals(type); }
+
+    @Override
+    public String toString() {
+        return course.getCourseCode() + " " + type + " " + number;
+    }
+}
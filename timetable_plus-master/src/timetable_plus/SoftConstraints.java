@@ -0,0 +1,119 @@
+package timetable_plus;
+
+import java.util.Arrays;
+
+// Weighted soft constraints, scored in one pass over a genome's packed cells.
+// Hard conflicts stay in ConflictCounters; these only rank timetables that
+// are equally good on hard constraints (see BITSTimetableEngine.fitnessFor).
+// Every term is a count of occurrences times its weight:
+//  - preferred periods: sessions outside their instructor's preferred periods
+//  - student gaps: idle periods between a course's sessions on one day (its
+//    students attend all of them)
+//  - room stability: sessions of a course outside the first room it uses
+//  - early morning: sessions in the 8 AM period
+// All terms are gathered in the same loop, so another term costs a few
+// operations per occupied cell rather than another pass.
+class SoftConstraints {
+    static final int EARLY_PERIOD = 0; // 8-9 AM
+
+    private static final int DAYS = InMemoryStore.WORKING_DAYS;
+    private static final int PERIODS = InMemoryStore.PERIODS_PER_DAY;
+
+    private final double preferredPeriodWeight;
+    private final double studentGapWeight;
+    private final double roomChangeWeight;
+    private final double earlyMorningWeight;
+    private final boolean enabled;
+
+    // Bit p set: the instructor (by codec id) prefers period p; 0 = no preference
+    private final int[] preferredPeriods;
+    private final int courseCount;
+
+    // Per-thread work arrays, left all clear (-1 / 0) between calls
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(this::newScratch);
+
+    private static class Scratch {
+        final int[] homeRoom;   // per course: first room seen, or -1
+        final int[] dayPeriods; // per (course, day): periods with a session
+        final int[] touched;    // (course, day) keys set in this pass
+
+        Scratch(int courses) {
+            homeRoom = new int[courses];
+            dayPeriods = new int[courses * DAYS];
+            touched = new int[courses * DAYS];
+            Arrays.fill(homeRoom, -1);
+        }
+    }
+
+    SoftConstraints(SolverConfig config, int[] preferredPeriods, int courseCount) {
+        this.preferredPeriodWeight = config.getPreferredPeriodWeight();
+        this.studentGapWeight = config.getStudentGapWeight();
+        this.roomChangeWeight = config.getRoomChangeWeight();
+        this.earlyMorningWeight = config.getEarlyMorningWeight();
+        this.enabled = preferredPeriodWeight > 0 || studentGapWeight > 0 ||
+                       roomChangeWeight > 0 || earlyMorningWeight > 0;
+        this.preferredPeriods = preferredPeriods;
+        this.courseCount = courseCount;
+    }
+
+    private Scratch newScratch() {
+        return new Scratch(courseCount);
+    }
+
+    // Weighted penalty of a genome; 0 when every weight is 0
+    double penalty(ScheduleGenome genome) {
+        if (!enabled) return 0;
+
+        Scratch s = scratch.get();
+        int[] genes = genome.getGenes();
+        int rooms = genome.getCellCount() / Schedule.CELLS;
+        int offPreference = 0;
+        int roomChanges = 0;
+        int earlyMorning = 0;
+        int touched = 0;
+
+        // Cells are room-major, then day, then period
+        int base = 0;
+        for (int room = 0; room < rooms; room++) {
+            for (int day = 0; day < DAYS; day++) {
+                for (int period = 0; period < PERIODS; period++, base += ScheduleGenome.GENE_STRIDE) {
+                    int course = (genes[base + ScheduleGenome.COURSE] & ScheduleGenome.ID_MASK) - 1;
+                    if (course < 0) continue;
+
+                    int instructor = genes[base + ScheduleGenome.INSTRUCTOR] - 1;
+                    if (instructor >= 0) {
+                        int preferred = preferredPeriods[instructor];
+                        if (preferred != 0 && (preferred & (1 << period)) == 0) offPreference++;
+                    }
+
+                    if (period == EARLY_PERIOD) earlyMorning++;
+
+                    if (s.homeRoom[course] < 0) {
+                        s.homeRoom[course] = room;
+                    } else if (s.homeRoom[course] != room) {
+                        roomChanges++;
+                    }
+
+                    int key = course * DAYS + day;
+                    if (s.dayPeriods[key] == 0) s.touched[touched++] = key;
+                    s.dayPeriods[key] |= 1 << period;
+                }
+            }
+        }
+
+        // Gaps are the empty periods between a course's first and last
+        // session of the day; clear the work arrays on the way
+        int gaps = 0;
+        for (int i = 0; i < touched; i++) {
+            int key = s.touched[i];
+            int periods = s.dayPeriods[key];
+            int span = 32 - Integer.numberOfLeadingZeros(periods) - Integer.numberOfTrailingZeros(periods);
+            gaps += span - Integer.bitCount(periods);
+            s.dayPeriods[key] = 0;
+            s.homeRoom[key / DAYS] = -1;
+        }
+
+        return preferredPeriodWeight * offPreference + studentGapWeight * gaps +
+               roomChangeWeight * roomChanges + earlyMorningWeight * earlyMorning;
+    }
+}
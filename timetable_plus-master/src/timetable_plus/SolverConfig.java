@@ -0,0 +1,393 @@
+package timetable_plus;
+
+import java.io.File;
+
+// Tuning and stopping parameters for BITSTimetableEngine; use the with*
+// methods to change them. The GA defaults (population, mutation rate,
+// tournament size and generation limit) are the engine's original
+// constants, and the default target fitness is reached by any timetable
+// without hard conflicts (see BITSTimetableEngine.fitnessFor). The later
+// additions default to what a plain run wants: adaptive restarts and the
+// fitness cache on, every soft-constraint weight 1, and the feasibility
+// pre-check off, so a run always returns the best timetable it can build.
+public class SolverConfig {
+    public enum Algorithm {
+        GENETIC,          // heuristic allocation refined by the genetic algorithm
+        CONSTRAINT_SEARCH, // exact backtracking search (ConstraintSolver)
+        LOCAL_SEARCH      // heuristic allocation polished by one local-search trajectory
+    }
+    
+    public enum LocalSearchMethod {
+        SIMULATED_ANNEALING,
+        TABU_SEARCH
+    }
+    
+    // How the annealing temperature falls from its initial to its final value
+    public enum CoolingSchedule {
+        GEOMETRIC,
+        LINEAR
+    }
+    
+    public enum MigrationTopology {
+        RING,       // island i sends to island i + 1
+        ALL_TO_ALL  // every island sends to every other island
+    }
+
+    private Algorithm algorithm = Algorithm.GENETIC;
+    
+    // Genetic algorithm parameters
+    private int populationSize = 100;
+    private double mutationRate = 0.02;
+    private int tournamentSize = 5;
+    private int maxGenerations = 1000;
+    private double targetFitness = 0.6; // between 1/2 and 2/3: stop once there are no hard conflicts
+
+    // Parallelism: workers scoring one population, or independent islands
+    private int parallelism = 1;
+    private int islandCount = 1;
+    private int migrationInterval = 25;
+    private MigrationTopology migrationTopology = MigrationTopology.RING;
+
+    // Local search parameters
+    private LocalSearchMethod localSearchMethod = LocalSearchMethod.SIMULATED_ANNEALING;
+    private int localSearchIterations = 20000;
+    private CoolingSchedule coolingSchedule = CoolingSchedule.GEOMETRIC;
+    private double initialTemperature = 2.0;
+    private double finalTemperature = 0.05;
+    private int tabuTenure = 10;
+    private int tabuCandidates = 40;
+    
+    // Stopping conditions; 0 means no limit
+    private long timeLimitMillis = 0;
+    private int stagnationLimit = 0;
+    private CancellationToken cancellationToken = new CancellationToken();
+    
+    // Adaptive restarts (see ConvergenceMonitor); a window of 0 turns them off
+    private int restartWindow = 50;
+    private double restartFraction = 0.5;
+    private int maxRestarts = 3;
+    
+    // Fitness values remembered per population, by genome hash (see FitnessCache); 0 turns it off
+    private int fitnessCacheSize = 4096;
+    
+    // Per-generation telemetry of the GA; no sink means none is gathered
+    private TelemetrySink telemetrySink = null;
+    private long telemetryIntervalMillis = 0;
+    
+    // GA checkpoints (see GenerationCheckpoint); no file means none are written
+    private File checkpointFile = null;
+    private int checkpointInterval = 0;
+    
+    // Fixed seed for reproducible runs; null draws a fresh seed per run
+    private Long seed = null;
+    
+    // Soft-constraint weights, per occurrence (see SoftConstraints); 0 turns a term off
+    private double preferredPeriodWeight = 1.0;
+    private double studentGapWeight = 1.0;
+    private double roomChangeWeight = 1.0;
+    private double earlyMorningWeight = 1.0;
+    
+    // Run FeasibilityCheck first and stop at once if it finds a problem
+    private boolean preCheck = false;
+
+    // Builder pattern methods
+    public SolverConfig withAlgorithm(Algorithm algorithm) {
+        if (algorithm == null) {
+            throw new IllegalArgumentException("Algorithm cannot be null");
+        }
+        this.algorithm = algorithm;
+        return this;
+    }
+    
+    public SolverConfig withPopulationSize(int size) {
+        if (size < 2) {
+            throw new IllegalArgumentException("Population size must be at least 2");
+        }
+        this.populationSize = size;
+        return this;
+    }
+
+    public SolverConfig withMutationRate(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Mutation rate must be between 0 and 1");
+        }
+        this.mutationRate = rate;
+        return this;
+    }
+
+    public SolverConfig withTournamentSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Tournament size must be at least 1");
+        }
+        this.tournamentSize = size;
+        return this;
+    }
+
+    public SolverConfig withMaxGenerations(int generations) {
+        if (generations < 0) {
+            throw new IllegalArgumentException("Generation limit cannot be negative");
+        }
+        this.maxGenerations = generations;
+        return this;
+    }
+
+    // The run stops as soon as the best schedule reaches this fitness
+    public SolverConfig withTargetFitness(double fitness) {
+        this.targetFitness = fitness;
+        return this;
+    }
+
+    // parallelism > 1 scores each generation across a ForkJoinPool of that many workers
+    public SolverConfig withParallelism(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = workers;
+        return this;
+    }
+
+    // islands > 1 evolves that many independent populations, one thread each,
+    // exchanging their best individuals every migrationInterval generations
+    public SolverConfig withIslands(int islands, int migrationInterval, MigrationTopology topology) {
+        if (islands < 1) {
+            throw new IllegalArgumentException("Island count must be at least 1");
+        }
+        if (migrationInterval < 1) {
+            throw new IllegalArgumentException("Migration interval must be at least 1");
+        }
+        if (topology == null) {
+            throw new IllegalArgumentException("Migration topology cannot be null");
+        }
+        this.islandCount = islands;
+        this.migrationInterval = migrationInterval;
+        this.migrationTopology = topology;
+        return this;
+    }
+
+    // Used by LOCAL_SEARCH and BITSTimetableEngine.polishSchedule
+    public SolverConfig withLocalSearch(LocalSearchMethod method, int iterations) {
+        if (method == null) {
+            throw new IllegalArgumentException("Local search method cannot be null");
+        }
+        if (iterations < 0) {
+            throw new IllegalArgumentException("Iteration limit cannot be negative");
+        }
+        this.localSearchMethod = method;
+        this.localSearchIterations = iterations;
+        return this;
+    }
+    
+    // Simulated annealing temperature, in conflicts, over the whole run
+    public SolverConfig withCooling(CoolingSchedule schedule, double initialTemperature, double finalTemperature) {
+        if (schedule == null) {
+            throw new IllegalArgumentException("Cooling schedule cannot be null");
+        }
+        if (finalTemperature <= 0 || initialTemperature < finalTemperature) {
+            throw new IllegalArgumentException("Temperatures must satisfy initial >= final > 0");
+        }
+        this.coolingSchedule = schedule;
+        this.initialTemperature = initialTemperature;
+        this.finalTemperature = finalTemperature;
+        return this;
+    }
+    
+    // Tabu search: a swap stays forbidden for 'tenure' iterations; each step
+    // picks the best of 'candidates' sampled neighbours
+    public SolverConfig withTabu(int tenure, int candidates) {
+        if (tenure < 0) {
+            throw new IllegalArgumentException("Tabu tenure cannot be negative");
+        }
+        if (candidates < 1) {
+            throw new IllegalArgumentException("Tabu search needs at least one candidate per step");
+        }
+        this.tabuTenure = tenure;
+        this.tabuCandidates = candidates;
+        return this;
+    }
+    
+    // Wall-clock budget for a whole generateSchedule call
+    public SolverConfig withTimeLimitMillis(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Time limit cannot be negative");
+        }
+        this.timeLimitMillis = millis;
+        return this;
+    }
+
+    // Stop after this many generations without a better best schedule
+    public SolverConfig withStagnationLimit(int generations) {
+        if (generations < 0) {
+            throw new IllegalArgumentException("Stagnation limit cannot be negative");
+        }
+        this.stagnationLimit = generations;
+        return this;
+    }
+
+    // After 'window' generations without a better best schedule the GA
+    // first raises its mutation rate, then restarts 'fraction' of the
+    // population once it has converged; after 'maxRestarts' restarts in a
+    // row that bring no improvement it gives up (StopReason.STAGNATION)
+    public SolverConfig withAdaptiveRestarts(int window, double fraction, int maxRestarts) {
+        if (window < 0) {
+            throw new IllegalArgumentException("Restart window cannot be negative");
+        }
+        if (fraction <= 0 || fraction > 1) {
+            throw new IllegalArgumentException("Restart fraction must be in (0, 1]");
+        }
+        if (maxRestarts < 0) {
+            throw new IllegalArgumentException("Restart count cannot be negative");
+        }
+        this.restartWindow = window;
+        this.restartFraction = fraction;
+        this.maxRestarts = maxRestarts;
+        return this;
+    }
+
+    // Size of each population's fitness transposition table. A cached
+    // value is exactly what scoring would give, so this changes speed only.
+    public SolverConfig withFitnessCache(int entries) {
+        if (entries < 0) {
+            throw new IllegalArgumentException("Fitness cache size cannot be negative");
+        }
+        this.fitnessCacheSize = entries;
+        return this;
+    }
+
+    public SolverConfig withCancellationToken(CancellationToken token) {
+        if (token == null) {
+            throw new IllegalArgumentException("Cancellation token cannot be null");
+        }
+        this.cancellationToken = token;
+        return this;
+    }
+
+    // Sends a TelemetryRecord to 'sink' after every generation, or at most
+    // once per 'intervalMillis' when that is positive (each record then
+    // covers all generations since the previous one). null turns it off.
+    public SolverConfig withTelemetry(TelemetrySink sink, long intervalMillis) {
+        if (intervalMillis < 0) {
+            throw new IllegalArgumentException("Telemetry interval cannot be negative");
+        }
+        this.telemetrySink = sink;
+        this.telemetryIntervalMillis = intervalMillis;
+        return this;
+    }
+
+    // Saves the GA's state to 'file' every 'everyGenerations' generations
+    // (at the end of the migration epoch that reaches them, with islands),
+    // replacing the previous checkpoint; BITSTimetableEngine.resumeSchedule
+    // carries on from it. A write that fails does not stop the run (see
+    // BITSTimetableEngine.getLastCheckpointFailure). null turns it off.
+    public SolverConfig withCheckpoints(File file, int everyGenerations) {
+        if (file != null && everyGenerations < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be at least 1 generation");
+        }
+        this.checkpointFile = file;
+        this.checkpointInterval = file != null ? everyGenerations : 0;
+        return this;
+    }
+
+    // Random streams of a run are all derived from this seed
+    public SolverConfig withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+    
+    // Weights of the soft constraints. Together they only ever break ties
+    // between timetables with the same number of hard conflicts.
+    public SolverConfig withSoftWeights(double preferredPeriods, double studentGaps, 
+                                        double roomChanges, double earlyMorning) {
+        if (preferredPeriods < 0 || studentGaps < 0 || roomChanges < 0 || earlyMorning < 0) {
+            throw new IllegalArgumentException("Soft constraint weights cannot be negative");
+        }
+        this.preferredPeriodWeight = preferredPeriods;
+        this.studentGapWeight = studentGaps;
+        this.roomChangeWeight = roomChanges;
+        this.earlyMorningWeight = earlyMorning;
+        return this;
+    }
+    
+    // true stops a run that the pre-check proves infeasible before it
+    // searches, returning an empty timetable with StopReason.INFEASIBLE
+    public SolverConfig withPreCheck(boolean enabled) {
+        this.preCheck = enabled;
+        return this;
+    }
+    
+    // An independent config with the same settings (and the same cancellation token)
+    public SolverConfig copy() {
+        SolverConfig copy = new SolverConfig();
+        copy.algorithm = algorithm;
+        copy.populationSize = populationSize;
+        copy.mutationRate = mutationRate;
+        copy.tournamentSize = tournamentSize;
+        copy.maxGenerations = maxGenerations;
+        copy.targetFitness = targetFitness;
+        copy.parallelism = parallelism;
+        copy.islandCount = islandCount;
+        copy.migrationInterval = migrationInterval;
+        copy.migrationTopology = migrationTopology;
+        copy.localSearchMethod = localSearchMethod;
+        copy.localSearchIterations = localSearchIterations;
+        copy.coolingSchedule = coolingSchedule;
+        copy.initialTemperature = initialTemperature;
+        copy.finalTemperature = finalTemperature;
+        copy.tabuTenure = tabuTenure;
+        copy.tabuCandidates = tabuCandidates;
+        copy.timeLimitMillis = timeLimitMillis;
+        copy.stagnationLimit = stagnationLimit;
+        copy.restartWindow = restartWindow;
+        copy.restartFraction = restartFraction;
+        copy.maxRestarts = maxRestarts;
+        copy.fitnessCacheSize = fitnessCacheSize;
+        copy.cancellationToken = cancellationToken;
+        copy.seed = seed;
+        copy.preferredPeriodWeight = preferredPeriodWeight;
+        copy.studentGapWeight = studentGapWeight;
+        copy.roomChangeWeight = roomChangeWeight;
+        copy.earlyMorningWeight = earlyMorningWeight;
+        copy.telemetrySink = telemetrySink;
+        copy.telemetryIntervalMillis = telemetryIntervalMillis;
+        copy.checkpointFile = checkpointFile;
+        copy.checkpointInterval = checkpointInterval;
+        copy.preCheck = preCheck;
+        return copy;
+    }
+    
+    // Getters
+    public Algorithm getAlgorithm() { return algorithm; }
+    public int getPopulationSize() { return populationSize; }
+    public double getMutationRate() { return mutationRate; }
+    public int getTournamentSize() { return tournamentSize; }
+    public int getMaxGenerations() { return maxGenerations; }
+    public double getTargetFitness() { return targetFitness; }
+    public int getParallelism() { return parallelism; }
+    public int getIslandCount() { return islandCount; }
+    public int getMigrationInterval() { return migrationInterval; }
+    public MigrationTopology getMigrationTopology() { return migrationTopology; }
+    public LocalSearchMethod getLocalSearchMethod() { return localSearchMethod; }
+    public int getLocalSearchIterations() { return localSearchIterations; }
+    public CoolingSchedule getCoolingSchedule() { return coolingSchedule; }
+    public double getInitialTemperature() { return initialTemperature; }
+    public double getFinalTemperature() { return finalTemperature; }
+    public int getTabuTenure() { return tabuTenure; }
+    public int getTabuCandidates() { return tabuCandidates; }
+    public long getTimeLimitMillis() { return timeLimitMillis; }
+    public int getStagnationLimit() { return stagnationLimit; }
+    public int getRestartWindow() { return restartWindow; }
+    public double getRestartFraction() { return restartFraction; }
+    public int getMaxRestarts() { return maxRestarts; }
+    public int getFitnessCacheSize() { return fitnessCacheSize; }
+    public CancellationToken getCancellationToken() { return cancellationToken; }
+    public Long getSeed() { return seed; }
+    public double getPreferredPeriodWeight() { return preferredPeriodWeight; }
+    public double getStudentGapWeight() { return studentGapWeight; }
+    public double getRoomChangeWeight() { return roomChangeWeight; }
+    public double getEarlyMorningWeight() { return earlyMorningWeight; }
+    public boolean isPreCheckEnabled() { return preCheck; }
+    public TelemetrySink getTelemetrySink() { return telemetrySink; }
+    public long getTelemetryIntervalMillis() { return telemetryIntervalMillis; }
+    public File getCheckpointFile() { return checkpointFile; }
+    public int getCheckpointInterval() { return checkpointInterval; }
+    public int getEliteCount() { return Math.max(1, populationSize / 10); }
+}
@@ -0,0 +1,55 @@
+package timetable_plus;
+
+// Snapshot of a running optimization, reported after each generation (or
+// each migration epoch in island mode)
+public class SolverProgress {
+    public interface Listener {
+        // Called on the optimizer's thread; keep it short
+        void onProgress(SolverProgress progress);
+    }
+
+    private final int generation;
+    private final int maxGenerations;
+    private final double bestFitness;
+    private final long evaluations;
+    private final long elapsedMillis;
+    // Population statistics; a single-trajectory search reports its best
+    // as the mean and no diversity
+    private final double meanFitness;
+    private final double diversity;
+
+    public SolverProgress(int generation, int maxGenerations, double bestFitness,
+                          long evaluations, long elapsedMillis) {
+        this(generation, maxGenerations, bestFitness, bestFitness, 0, evaluations, elapsedMillis);
+    }
+
+    public SolverProgress(int generation, int maxGenerations, double bestFitness, double meanFitness,
+                          double diversity, long evaluations, long elapsedMillis) {
+        this.generation = generation;
+        this.maxGenerations = maxGenerations;
+        this.bestFitness = bestFitness;
+        this.meanFitness = meanFitness;
+        this.diversity = diversity;
+        this.evaluations = evaluations;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getEvaluationsPerSecond() {
+        return elapsedMillis > 0 ? evaluations * 1000.0 / elapsedMillis : 0;
+    }
+
+    // Getters
+    public int getGeneration() { return generation; }
+    public int getMaxGenerations() { return maxGenerations; }
+    public double getBestFitness() { return bestFitness; }
+    public double getMeanFitness() { return meanFitness; }
+    public double getDiversity() { return diversity; } // 0-1, see ConvergenceMonitor
+    public long getEvaluations() { return evaluations; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    @Override
+    public String toString() {
+        return String.format("Generation %d/%d - best fitness %.3f - %,.0f evals/s",
+                             generation, maxGenerations, bestFitness, getEvaluationsPerSecond());
+    }
+}
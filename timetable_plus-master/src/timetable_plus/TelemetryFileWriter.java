@@ -0,0 +1,85 @@
+package timetable_plus;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+// Writes telemetry to a file as CSV (with a header row) or as JSON Lines,
+// one object per record. Every record is flushed, so the file can be
+// charted while the run is still going.
+public class TelemetryFileWriter implements TelemetrySink {
+    public enum Format {
+        CSV,
+        JSON
+    }
+
+    private static final String[] COLUMNS = {
+        "generation", "island", "elapsedMillis", "bestFitness", "meanFitness", "worstFitness",
+        "diversity", "evaluationsPerSecond", "allocatedBytes",
+        "selectionNanos", "crossoverNanos", "mutationNanos", "evaluationNanos"
+    };
+
+    private final PrintWriter writer;
+    private final Format format;
+
+    // The format follows the extension: .json or .jsonl for JSON, else CSV
+    public TelemetryFileWriter(File file) throws IOException {
+        this(file, file.getName().endsWith(".json") || file.getName().endsWith(".jsonl") ? Format.JSON : Format.CSV);
+    }
+
+    public TelemetryFileWriter(File file, Format format) throws IOException {
+        if (format == null) {
+            throw new IllegalArgumentException("Telemetry format cannot be null");
+        }
+        this.writer = new PrintWriter(new BufferedWriter(new FileWriter(file)));
+        this.format = format;
+
+        if (format == Format.CSV) {
+            writer.println(String.join(",", COLUMNS));
+            writer.flush();
+        }
+    }
+
+    @Override
+    public synchronized void record(TelemetryRecord record) {
+        Object[] values = {
+            record.getGeneration(), record.getIsland(), record.getElapsedMillis(),
+            record.getBestFitness(), record.getMeanFitness(), record.getWorstFitness(),
+            record.getDiversity(), record.getEvaluationsPerSecond(), record.getAllocatedBytes(),
+            record.getSelectionNanos(), record.getCrossoverNanos(), record.getMutationNanos(),
+            record.getEvaluationNanos()
+        };
+
+        StringBuilder sb = new StringBuilder();
+        if (format == Format.JSON) sb.append('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(',');
+            if (format == Format.JSON) sb.append('"').append(COLUMNS[i]).append("\":");
+            sb.append(format(values[i]));
+        }
+        if (format == Format.JSON) sb.append('}');
+
+        writer.println(sb.toString());
+        writer.flush();
+    }
+
+    // Doubles in a fixed, locale-independent form; JSON has no NaN
+    private String format(Object value) {
+        if (value instanceof Double) {
+            double d = (Double) value;
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                return format == Format.JSON ? "null" : "";
+            }
+            return String.format(Locale.ROOT, "%.6f", d);
+        }
+        return String.valueOf(value);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,62 @@
+package timetable_plus;
+
+// One telemetry sample of a running GA: the population after a generation,
+// and where the time went since the previous record of the same population
+public class TelemetryRecord {
+    private final int generation;
+    private final int island; // -1 for a single population
+    private final long elapsedMillis;
+    private final double bestFitness;
+    private final double meanFitness;
+    private final double worstFitness;
+    private final double diversity;
+    private final double evaluationsPerSecond;
+    // By the thread driving the population, so without the ForkJoin workers'
+    // share when scoring runs in parallel; -1 if the JVM cannot tell
+    private final long allocatedBytes;
+    private final long selectionNanos;
+    private final long crossoverNanos;
+    private final long mutationNanos;
+    private final long evaluationNanos;
+
+    public TelemetryRecord(int generation, int island, long elapsedMillis,
+                           double bestFitness, double meanFitness, double worstFitness, double diversity,
+                           double evaluationsPerSecond, long allocatedBytes,
+                           long selectionNanos, long crossoverNanos, long mutationNanos, long evaluationNanos) {
+        this.generation = generation;
+        this.island = island;
+        this.elapsedMillis = elapsedMillis;
+        this.bestFitness = bestFitness;
+        this.meanFitness = meanFitness;
+        this.worstFitness = worstFitness;
+        this.diversity = diversity;
+        this.evaluationsPerSecond = evaluationsPerSecond;
+        this.allocatedBytes = allocatedBytes;
+        this.selectionNanos = selectionNanos;
+        this.crossoverNanos = crossoverNanos;
+        this.mutationNanos = mutationNanos;
+        this.evaluationNanos = evaluationNanos;
+    }
+
+    // Getters
+    public int getGeneration() { return generation; }
+    public int getIsland() { return island; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public double getBestFitness() { return bestFitness; }
+    public double getMeanFitness() { return meanFitness; }
+    public double getWorstFitness() { return worstFitness; }
+    public double getDiversity() { return diversity; }
+    public double getEvaluationsPerSecond() { return evaluationsPerSecond; }
+    public long getAllocatedBytes() { return allocatedBytes; }
+    public long getSelectionNanos() { return selectionNanos; }
+    public long getCrossoverNanos() { return crossoverNanos; }
+    public long getMutationNanos() { return mutationNanos; }
+    public long getEvaluationNanos() { return evaluationNanos; }
+
+    @Override
+    public String toString() {
+        return String.format("Generation %d%s - best %.4f, mean %.4f, worst %.4f, diversity %.3f",
+                             generation, island >= 0 ? " (island " + island + ")" : "",
+                             bestFitness, meanFitness, worstFitness, diversity);
+    }
+}
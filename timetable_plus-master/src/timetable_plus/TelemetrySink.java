@@ -0,0 +1,12 @@
+package timetable_plus;
+
+import java.io.IOException;
+
+// Receives the GA's telemetry (see SolverConfig.withTelemetry). Called on
+// the optimizer's thread; a sink shared by concurrent runs (a portfolio)
+// must be thread-safe. The engine never closes a sink; its owner does.
+public interface TelemetrySink {
+    void record(TelemetryRecord record);
+
+    default void close() throws IOException {}
+}
@@ -12,6 +12,11 @@ public class TimetablePanel extends JPanel {
     public TimetablePanel(Schedule schedule) {
         this.schedule = schedule;
         setLayout(new BorderLayout());
+        
+        if (schedule == null) {
+            add(new JLabel("No timetable has been generated yet.", JLabel.CENTER), BorderLayout.CENTER);
+            return;
+        }
         initTimetable();
     }
     
@@ -49,9 +54,6 @@ public class TimetablePanel extends JPanel {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBorder(BorderFactory.createLineBorder(Color.BLACK));
         
-        // Get the schedule slot
-        ScheduleSlot slot = schedule.getSlot(day, period);
-        
         // Skip lunch time slots
         if (period >= BITSConstraints.LUNCH_START && period < BITSConstraints.LUNCH_END) {
             panel.setBackground(new Color(255, 222, 173)); // Light orange
@@ -60,21 +62,34 @@ public class TimetablePanel extends JPanel {
             return panel;
         }
         
-        // Render course information if allocated
-        if (slot != null && slot.getCourse() != null) {
+        // Every class running in this period, one line per room
+        java.util.List<ScheduleSlot> running = schedule.getSlots(day, period);
+        if (running.isEmpty()) {
+            panel.setBackground(Color.WHITE);
+            return panel;
+        }
+        
+        JPanel sessions = new JPanel(new GridLayout(0, 1));
+        StringBuilder tooltip = new StringBuilder("<html>");
+        for (ScheduleSlot slot : running) {
             Course course = slot.getCourse();
-            panel.setBackground(course.getDisplayColor());
-            
-            JLabel courseLabel = new JLabel(course.getCourseCode(), JLabel.CENTER);
-            JLabel roomLabel = new JLabel(slot.getRoomNumber(), JLabel.CENTER);
-            roomLabel.setFont(new Font("Arial", Font.PLAIN, 10));
+            JLabel label = new JLabel(course.getCourseCode() + " " + slot.getRoomNumber(), JLabel.CENTER);
+            label.setFont(new Font("Arial", Font.PLAIN, 10));
+            label.setOpaque(true);
+            label.setBackground(course.getDisplayColor());
+            sessions.add(label);
             
-            panel.add(courseLabel, BorderLayout.CENTER);
-            panel.add(roomLabel, BorderLayout.SOUTH);
-        } else {
-            panel.setBackground(Color.WHITE);
+            tooltip.append(course.getCourseCode()).append(" - ").append(slot.getRoomNumber())
+                   .append(" - ").append(slot.getInstructorId()).append("<br>");
         }
         
+        // Many parallel classes: scroll within the cell
+        JScrollPane scroll = new JScrollPane(sessions, JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED,
+                                             JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+        scroll.setBorder(null);
+        panel.add(scroll, BorderLayout.CENTER);
+        panel.setToolTipText(tooltip.append("</html>").toString());
+        
         return panel;
     }
 }